@@ -0,0 +1,107 @@
+package com.example.cube.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small bounded in-memory cache where every entry carries its own expiry.
+ * Least-recently-used entries are dropped once {@code maxEntries} is reached,
+ * expired entries are dropped on read.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maxEntries) {
+        this(maxEntries, Clock.systemUTC());
+    }
+
+    public ExpiringCache(int maxEntries, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value, or null when absent or expired.
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (!clock.instant().isBefore(entry.expiresAt())) {
+                entries.remove(key);
+                evictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        }
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, clock.instant().plus(ttl));
+    }
+
+    public void put(K key, V value, Instant expiresAt) {
+        if (!clock.instant().isBefore(expiresAt)) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() { return hits.sum(); }
+
+    public long missCount() { return misses.sum(); }
+
+    public long evictionCount() { return evictions.sum(); }
+
+    private record Entry<V>(V value, Instant expiresAt) {
+    }
+}
@@ -1,11 +1,62 @@
 package com.example.cube.config;
 
+import com.example.cube.security.KnownUserCache;
+import com.example.cube.security.MembershipIndex;
+import com.example.cube.service.UserDirectory;
+import com.example.cube.service.supabass.SupabaseUserLookupService;
+import com.example.cube.service.supabass.TokenValidator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.function.ToDoubleFunction;
+
 /**
- * Placeholder configuration used for component scanning.
- * Previous cache configuration has been removed.
+ * Exposes hit/miss counters of the in-memory caches as Micrometer metrics.
  */
 @Configuration
 public class CacheConfig {
+
+    @Bean
+    public MeterBinder tokenCacheMetrics(TokenValidator tokenValidator) {
+        return registry -> registerCache(registry, "verified-tokens", tokenValidator,
+                TokenValidator::getCacheHits, TokenValidator::getCacheMisses, TokenValidator::getCacheSize);
+    }
+
+    @Bean
+    public MeterBinder knownUserCacheMetrics(KnownUserCache knownUserCache) {
+        return registry -> registerCache(registry, "known-users", knownUserCache,
+                KnownUserCache::getHits, KnownUserCache::getMisses, KnownUserCache::getSize);
+    }
+
+    @Bean
+    public MeterBinder userLookupCacheMetrics(SupabaseUserLookupService userLookupService) {
+        return registry -> registerCache(registry, "supabase-user-lookup", userLookupService,
+                SupabaseUserLookupService::getCacheHits, SupabaseUserLookupService::getCacheMisses,
+                SupabaseUserLookupService::getCacheSize);
+    }
+
+    @Bean
+    public MeterBinder userDirectoryCacheMetrics(UserDirectory userDirectory) {
+        return registry -> registerCache(registry, "user-names", userDirectory,
+                UserDirectory::getHits, UserDirectory::getMisses, UserDirectory::getSize);
+    }
+
+    @Bean
+    public MeterBinder membershipCacheMetrics(MembershipIndex membershipIndex) {
+        return registry -> registerCache(registry, "cube-memberships", membershipIndex,
+                MembershipIndex::getHits, MembershipIndex::getMisses, MembershipIndex::getSize);
+    }
+
+    private static <T> void registerCache(MeterRegistry registry, String cache, T source,
+                                          ToDoubleFunction<T> hits,
+                                          ToDoubleFunction<T> misses,
+                                          ToDoubleFunction<T> size) {
+        FunctionCounter.builder("cube.cache.hits", source, hits).tag("cache", cache).register(registry);
+        FunctionCounter.builder("cube.cache.misses", source, misses).tag("cache", cache).register(registry);
+        Gauge.builder("cube.cache.size", source, size).tag("cache", cache).register(registry);
+    }
 }
@@ -0,0 +1,166 @@
+package com.example.cube.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Shared outbound HTTP client.
+ *
+ * All Supabase and Resend calls go through one pooled Apache HttpClient with
+ * keep-alive and idle-connection eviction. Each dependency gets its own
+ * RestTemplate with its own timeouts. Latency and errors are recorded per host
+ * as http.client.requests (tag client.name), pool usage as
+ * httpcomponents.httpclient.pool.* and cube.http.pool.* (tag host).
+ */
+@Configuration
+public class HttpClientConfig {
+
+    public static final String SUPABASE = "supabaseRestTemplate";
+    public static final String RESEND = "resendRestTemplate";
+
+    @Value("${supabase.url}")
+    private String supabaseUrl;
+
+    @Value("${resend.api.url:https://api.resend.com}")
+    private String resendUrl;
+
+    @Value("${cube.http.pool.max-total:100}")
+    private int maxTotal;
+
+    @Value("${cube.http.pool.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${cube.http.pool.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${cube.http.connection-request-timeout-ms:2000}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${cube.http.supabase.connect-timeout-ms:2000}")
+    private long supabaseConnectTimeoutMs;
+
+    @Value("${cube.http.supabase.read-timeout-ms:5000}")
+    private long supabaseReadTimeoutMs;
+
+    @Value("${cube.http.resend.connect-timeout-ms:2000}")
+    private long resendConnectTimeoutMs;
+
+    @Value("${cube.http.resend.read-timeout-ms:10000}")
+    private long resendReadTimeoutMs;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager outboundConnectionManager() {
+        Map<String, ConnectionConfig> perHost = new HashMap<>();
+        perHost.put(targetHost(supabaseUrl).getHostName(), connectionConfig(supabaseConnectTimeoutMs));
+        perHost.put(targetHost(resendUrl).getHostName(), connectionConfig(resendConnectTimeoutMs));
+        ConnectionConfig defaults = connectionConfig(supabaseConnectTimeoutMs);
+
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(defaults)
+                .build();
+        manager.setConnectionConfigResolver(route ->
+                perHost.getOrDefault(route.getTargetHost().getHostName(), defaults));
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient(PoolingHttpClientConnectionManager outboundConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(outboundConnectionManager)
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean(SUPABASE)
+    public RestTemplate supabaseRestTemplate(RestTemplateBuilder builder, CloseableHttpClient outboundHttpClient) {
+        return builder
+                .requestFactory(() -> requestFactory(outboundHttpClient, supabaseReadTimeoutMs))
+                .build();
+    }
+
+    @Bean(RESEND)
+    public RestTemplate resendRestTemplate(RestTemplateBuilder builder, CloseableHttpClient outboundHttpClient) {
+        return builder
+                .requestFactory(() -> requestFactory(outboundHttpClient, resendReadTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder outboundPoolMetrics(PoolingHttpClientConnectionManager outboundConnectionManager) {
+        return registry -> {
+            new PoolingHttpClientConnectionManagerMetricsBinder(outboundConnectionManager, "outbound")
+                    .bindTo(registry);
+
+            for (String url : new String[] {supabaseUrl, resendUrl}) {
+                HttpRoute route = routeFor(url);
+                String host = route.getTargetHost().getHostName();
+                registerPoolGauge(registry, "cube.http.pool.leased", host, outboundConnectionManager, route, PoolStats::getLeased);
+                registerPoolGauge(registry, "cube.http.pool.available", host, outboundConnectionManager, route, PoolStats::getAvailable);
+                registerPoolGauge(registry, "cube.http.pool.pending", host, outboundConnectionManager, route, PoolStats::getPending);
+            }
+        };
+    }
+
+    private HttpComponentsClientHttpRequestFactory requestFactory(CloseableHttpClient httpClient, long readTimeoutMs) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setConnectionRequestTimeout(Duration.ofMillis(connectionRequestTimeoutMs));
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return factory;
+    }
+
+    private static ConnectionConfig connectionConfig(long connectTimeoutMs) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build();
+    }
+
+    private static HttpHost targetHost(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+        return new HttpHost(uri.getScheme(), uri.getHost(), port);
+    }
+
+    // Same shape as the routes the client plans for direct (non-proxied) requests
+    private static HttpRoute routeFor(String url) {
+        HttpHost target = targetHost(url);
+        return new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+    }
+
+    private static void registerPoolGauge(MeterRegistry registry, String name, String host,
+                                          PoolingHttpClientConnectionManager manager, HttpRoute route,
+                                          ToDoubleFunction<PoolStats> value) {
+        Gauge.builder(name, manager, m -> value.applyAsDouble(m.getStats(route)))
+                .tag("host", host)
+                .register(registry);
+    }
+}
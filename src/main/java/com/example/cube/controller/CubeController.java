@@ -6,20 +6,24 @@ import com.example.cube.dto.request.GetUserCubesRequest;
 import com.example.cube.dto.request.StartCubeRequest;
 import com.example.cube.dto.response.CreateCubeResponse;
 import com.example.cube.dto.response.CubeActivityResponse;
+import com.example.cube.dto.response.CubeSummaryResponse;
 import com.example.cube.dto.response.GetCubeResponse;
+import com.example.cube.dto.response.GetMyCubesSummaryResponse;
 import com.example.cube.dto.response.GetUserCubesResponse;
 import com.example.cube.dto.response.WinnerResponse;
 import com.example.cube.mapper.CubeMapper;
 import com.example.cube.model.Cube;
-import com.example.cube.repository.CubeMemberRepository;
-import com.example.cube.security.AuthenticationService;
+import com.example.cube.security.AuthUser;
+import com.example.cube.security.MembershipIndex;
 import com.example.cube.service.CubeService;
 import com.example.cube.service.CycleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,27 +39,23 @@ public class CubeController {
 
     private final CubeService cubeService;
     private final CubeMapper cubeMapper;
-    private final AuthenticationService authenticationService;
     private final CycleService cycleService;
-    private final CubeMemberRepository cubeMemberRepository;
+    private final MembershipIndex membershipIndex;
 
     @Autowired
-    public CubeController(CubeService cubeService, CubeMapper cubeMapper, AuthenticationService authenticationService, 
-                          CycleService cycleService, CubeMemberRepository cubeMemberRepository) {
+    public CubeController(CubeService cubeService, CubeMapper cubeMapper, CycleService cycleService,
+                          MembershipIndex membershipIndex) {
         this.cubeService = cubeService;
         this.cubeMapper = cubeMapper;
-        this.authenticationService = authenticationService;
         this.cycleService = cycleService;
-        this.cubeMemberRepository = cubeMemberRepository;
+        this.membershipIndex = membershipIndex;
     }
 
     @PostMapping("/create")
     public ResponseEntity<CreateCubeResponse> createCube(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @RequestBody CreateCubeRequest createCubeRequest) {
 
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-
         // Pass userId to service
         Cube savedCube = cubeService.createCubeFromDTO(createCubeRequest, userId);
         CreateCubeResponse response = cubeMapper.toResponse(savedCube);
@@ -64,10 +64,7 @@ public class CubeController {
 
     @GetMapping("/my-cubes")
     public ResponseEntity<GetUserCubesResponse> getMyCubes(
-            @RequestHeader("Authorization") String authHeader) {
-
-        // Extract user ID from JWT token automatically
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
+            @AuthUser UUID userId) {
 
         // Get cube IDs for the authenticated user
         List<UUID> cubeIds = cubeService.getUserCubeIds(userId);
@@ -78,14 +75,25 @@ public class CubeController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Everything the home screen needs for all of the caller's cubes in one request
+     *
+     * GET /api/cubes/my-cubes/summary
+     */
+    @GetMapping("/my-cubes/summary")
+    public ResponseEntity<GetMyCubesSummaryResponse> getMyCubesSummary(
+            @AuthUser UUID userId) {
+
+        List<CubeSummaryResponse> cubes = cubeService.getUserCubeSummaries(userId);
+
+        return ResponseEntity.ok(new GetMyCubesSummaryResponse(userId, cubes));
+    }
+
     @PostMapping("/get")
     public ResponseEntity<GetCubeResponse> getCube(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @RequestBody GetCubeRequest request) {
 
-        // Validate auth token
-        authenticationService.validateAndExtractUserId(authHeader);
-
         // Get cube by ID
         Cube cube = cubeService.getCubeById(request.getCubeId());
 
@@ -97,12 +105,9 @@ public class CubeController {
 
     @PostMapping("/start")
     public ResponseEntity<Map<String, String>> startCube(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @RequestBody StartCubeRequest request) {
 
-        // Validate and extract user ID from JWT token
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-
         try {
             // Start the cube (cycle 1 only)
             cycleService.startCube(request.getCubeId(), request.getMemberId(), userId);
@@ -123,23 +128,21 @@ public class CubeController {
      * Get recent activity for a cube (payments, winners, member joins)
      * 
      * GET /api/cubes/{cubeId}/activity?limit=20
+     * Next page: pass the timestamp and activityId of the last item as before / beforeId.
      */
     @GetMapping("/{cubeId}/activity")
     public ResponseEntity<List<CubeActivityResponse>> getCubeActivity(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @PathVariable UUID cubeId,
-            @RequestParam(defaultValue = "20") int limit) {
-        
-        // Validate auth token and extract user ID
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-        
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) UUID beforeId) {
+
         // Verify user is a member of this cube
-        if (!cubeMemberRepository.existsByCubeIdAndUserId(cubeId, userId)) {
-            throw new RuntimeException("You are not a member of this cube");
-        }
+        membershipIndex.requireMember(cubeId, userId);
         
         // Get activity feed
-        List<CubeActivityResponse> activities = cubeService.getCubeActivity(cubeId, limit);
+        List<CubeActivityResponse> activities = cubeService.getCubeActivity(cubeId, before, beforeId, limit);
         
         return ResponseEntity.ok(activities);
     }
@@ -151,16 +154,11 @@ public class CubeController {
      */
     @GetMapping("/{cubeId}/winners")
     public ResponseEntity<List<WinnerResponse>> getPreviousWinners(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @PathVariable UUID cubeId) {
-        
-        // Validate auth token and extract user ID
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-        
+
         // Verify user is a member of this cube
-        if (!cubeMemberRepository.existsByCubeIdAndUserId(cubeId, userId)) {
-            throw new RuntimeException("You are not a member of this cube");
-        }
+        membershipIndex.requireMember(cubeId, userId);
         
         // Get winners
         List<WinnerResponse> winners = cubeService.getPreviousWinners(cubeId);
@@ -172,17 +170,17 @@ public class CubeController {
      * Get recent activity for the authenticated user across all cubes
      * 
      * GET /api/cubes/my-activity?limit=20
+     * Next page: pass the timestamp and activityId of the last item as before / beforeId.
      */
     @GetMapping("/my-activity")
     public ResponseEntity<List<CubeActivityResponse>> getMyActivity(
-            @RequestHeader("Authorization") String authHeader,
-            @RequestParam(defaultValue = "20") int limit) {
-        
-        // Validate auth token and extract user ID
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-        
+            @AuthUser UUID userId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) UUID beforeId) {
+
         // Get user's activity feed
-        List<CubeActivityResponse> activities = cubeService.getUserActivity(userId, limit);
+        List<CubeActivityResponse> activities = cubeService.getUserActivity(userId, before, beforeId, limit);
         
         return ResponseEntity.ok(activities);
     }
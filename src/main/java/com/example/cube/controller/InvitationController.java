@@ -2,7 +2,7 @@ package com.example.cube.controller;
 
 import com.example.cube.dto.request.JoinCubeRequest;
 import com.example.cube.dto.response.JoinCubeResponse;
-import com.example.cube.security.AuthenticationService;
+import com.example.cube.security.AuthUser;
 import com.example.cube.service.InvitationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,21 +16,17 @@ import java.util.UUID;
 public class InvitationController {
 
     private final InvitationService invitationService;
-    private final AuthenticationService authenticationService;
 
     @Autowired
-    public InvitationController(InvitationService invitationService,
-                                AuthenticationService authenticationService) {
+    public InvitationController(InvitationService invitationService) {
         this.invitationService = invitationService;
-        this.authenticationService = authenticationService;
     }
 
     @PostMapping("/join")
     public ResponseEntity<JoinCubeResponse> joinCubeByCode(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @Valid @RequestBody JoinCubeRequest request) {
 
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
         JoinCubeResponse response = invitationService.joinCubeByCode(request.getInvitationCode(), userId);
         return ResponseEntity.ok(response);
     }
@@ -1,20 +1,27 @@
 package com.example.cube.controller;
 
+import com.example.cube.dto.MemberInfoRow;
 import com.example.cube.dto.request.InviteMembersRequest;
 import com.example.cube.dto.request.VerifyAdminRequest;
 import com.example.cube.dto.response.GetCubeMembersResponse;
 import com.example.cube.dto.response.InviteMembersResponse;
 import com.example.cube.dto.response.VerifyAdminResponse;
 import com.example.cube.mapper.MemberMapper;  // ✅ ADD
-import com.example.cube.model.CubeMember;
+import com.example.cube.reference.MemberStatusId;
+import com.example.cube.reference.RoleId;
 import com.example.cube.repository.CubeMemberRepository;
-import com.example.cube.security.AuthenticationService;
+import com.example.cube.security.AuthUser;
+import com.example.cube.security.MembershipIndex;
 import com.example.cube.service.InvitationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,25 +32,24 @@ import java.util.UUID;
 public class MemberController {
 
     private final InvitationService invitationService;
-    private final AuthenticationService authenticationService;
     private final CubeMemberRepository cubeMemberRepository;
     private final MemberMapper memberMapper;  // ✅ ADD
+    private final MembershipIndex membershipIndex;
 
     @Autowired
     public MemberController(InvitationService invitationService,
-                            AuthenticationService authenticationService,
                             CubeMemberRepository cubeMemberRepository,
-                            MemberMapper memberMapper) {  // ✅ ADD
+                            MemberMapper memberMapper,  // ✅ ADD
+                            MembershipIndex membershipIndex) {
         this.invitationService = invitationService;
-        this.authenticationService = authenticationService;
         this.cubeMemberRepository = cubeMemberRepository;
         this.memberMapper = memberMapper;  // ✅ ADD
+        this.membershipIndex = membershipIndex;
     }
 
     @PostMapping("/invite")
     public ResponseEntity<InviteMembersResponse> inviteMembers(@Valid @RequestBody InviteMembersRequest request,
-                                                               @RequestHeader("Authorization") String authHeader) {
-        UUID invitedBy = authenticationService.validateAndExtractUserId(authHeader);
+                                                               @AuthUser UUID invitedBy) {
         UUID cubeId = request.getCubeId();
 
         InviteMembersResponse response = invitationService.inviteMembers(cubeId, request, invitedBy);
@@ -51,19 +57,26 @@ public class MemberController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Supports conditional GET: the app polls this screen while waiting for payments,
+     * so an unchanged member list is answered with 304 and no body.
+     */
     @GetMapping("/cube/{cubeId}")
     public ResponseEntity<GetCubeMembersResponse> getCubeMembers(
-            @RequestHeader("Authorization") String authHeader,
-            @PathVariable UUID cubeId) {
+            @AuthUser UUID userId,
+            @PathVariable UUID cubeId,
+            WebRequest webRequest) {
 
-        // Validate auth token
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
+        // Get all members for this cube, with names, in one query
+        List<MemberInfoRow> rows = cubeMemberRepository.findMemberInfoRows(cubeId);
 
-        // Get all members for this cube
-        List<CubeMember> members = cubeMemberRepository.findByCubeId(cubeId);
+        String etag = membersEtag(cubeId, rows);
+        if (webRequest.checkNotModified(etag)) {
+            // 304 status and ETag header are already set on the response
+            return null;
+        }
 
-        // ✅ REPLACE the entire stream with mapper call
-        List<GetCubeMembersResponse.MemberInfo> memberInfoList = members.stream()
+        List<GetCubeMembersResponse.MemberInfo> memberInfoList = rows.stream()
                 .map(memberMapper::toMemberInfo)
                 .toList();
 
@@ -73,25 +86,18 @@ public class MemberController {
                 memberInfoList
         );
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
     }
 
     @PostMapping("/verify-admin")
     public ResponseEntity<VerifyAdminResponse> verifyAdmin(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @RequestBody VerifyAdminRequest request) {
 
-        // Extract user ID from auth token
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-
-        // Query cube_members table by authenticated user_id and cube_id
-        Optional<CubeMember> memberOpt = cubeMemberRepository.findByCubeIdAndUserId(
-                request.getCubeId(),
-                userId
-        );
-
-        // Check if member exists and if role_id = 1 (admin)
-        boolean isAdmin = memberOpt.isPresent() && memberOpt.get().getRoleId() == 1;
+        // Check the authenticated user's cached membership for role_id = 1 (admin)
+        boolean isAdmin = membershipIndex.isAdmin(request.getCubeId(), userId);
 
         VerifyAdminResponse response = new VerifyAdminResponse(isAdmin);
 
@@ -104,12 +110,10 @@ public class MemberController {
      */
     @GetMapping("/my-membership/{cubeId}")
     public ResponseEntity<?> getMyMembership(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @PathVariable UUID cubeId) {
 
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-
-        Optional<CubeMember> memberOpt = cubeMemberRepository.findByCubeIdAndUserId(cubeId, userId);
+        Optional<MembershipIndex.Membership> memberOpt = membershipIndex.membership(cubeId, userId);
 
         if (memberOpt.isEmpty()) {
             return ResponseEntity.status(404).body(Map.of(
@@ -118,18 +122,37 @@ public class MemberController {
             ));
         }
 
-        CubeMember member = memberOpt.get();
+        MembershipIndex.Membership member = memberOpt.get();
 
         return ResponseEntity.ok(Map.of(
-                "memberId", member.getMemberId(),
-                "userId", member.getUserId(),
-                "cubeId", member.getCubeId(),
-                "roleId", member.getRoleId(),
-                "roleName", member.getRoleId() == 1 ? "admin" : "member",
-                "payoutPosition", member.getPayoutPosition() != null ? member.getPayoutPosition() : 0,
-                "statusId", member.getStatusId(),
-                "paymentStatus", member.getStatusId() == 2 ? "Paid" : "Has Not Paid",
-                "hasReceivedPayout", member.getHasReceivedPayout()
+                "memberId", member.memberId(),
+                "userId", userId,
+                "cubeId", member.cubeId(),
+                "roleId", member.roleId(),
+                "roleName", RoleId.ADMIN.is(member.roleId()) ? "admin" : "member",
+                "payoutPosition", member.payoutPosition() != null ? member.payoutPosition() : 0,
+                "statusId", member.statusId(),
+                "paymentStatus", MemberStatusId.PAID.is(member.statusId()) ? "Paid" : "Has Not Paid",
+                "hasReceivedPayout", member.hasReceivedPayout()
         ));
     }
+
+    /**
+     * ETag over every field shown on the members screen
+     */
+    private static String membersEtag(UUID cubeId, List<MemberInfoRow> rows) {
+        StringBuilder content = new StringBuilder(cubeId.toString());
+        for (MemberInfoRow row : rows) {
+            content.append('|').append(row.getMemberId())
+                    .append(',').append(row.getUserId())
+                    .append(',').append(row.getRoleId())
+                    .append(',').append(row.getStatusId())
+                    .append(',').append(row.getJoinedAt())
+                    .append(',').append(row.getPayoutPosition())
+                    .append(',').append(row.getHasReceivedPayout())
+                    .append(',').append(row.getFirstName())
+                    .append(',').append(row.getLastName());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
 }
\ No newline at end of file
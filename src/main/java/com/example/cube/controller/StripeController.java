@@ -3,7 +3,7 @@ package com.example.cube.controller;
 import com.example.cube.dto.request.CreatePaymentIntentRequest;
 import com.example.cube.dto.response.PaymentIntentResponse;
 import com.example.cube.repository.UserDetailsRepository;
-import com.example.cube.security.AuthenticationService;
+import com.example.cube.security.AuthUser;
 import com.example.cube.service.PayoutService;
 import com.example.cube.service.StripeConnectService;
 import com.example.cube.service.StripeEmbeddedOnboardingService;
@@ -42,7 +42,6 @@ public class StripeController {
     private final StripeConnectService stripeConnectService;
     private final StripeEmbeddedOnboardingService stripeEmbeddedOnboardingService;
     private final PayoutService payoutService;
-    private final AuthenticationService authenticationService;
     private final UserDetailsRepository userDetailsRepository;
 
     @Value("${stripe.api.key}")
@@ -54,13 +53,11 @@ public class StripeController {
             StripeConnectService stripeConnectService,
             StripeEmbeddedOnboardingService stripeEmbeddedOnboardingService,
             PayoutService payoutService,
-            AuthenticationService authenticationService,
             UserDetailsRepository userDetailsRepository) {
         this.stripePaymentService = stripePaymentService;
         this.stripeConnectService = stripeConnectService;
         this.stripeEmbeddedOnboardingService = stripeEmbeddedOnboardingService;
         this.payoutService = payoutService;
-        this.authenticationService = authenticationService;
         this.userDetailsRepository = userDetailsRepository;
     }
 
@@ -68,11 +65,9 @@ public class StripeController {
 
     @PostMapping("/payments/create-payment-intent")
     public ResponseEntity<PaymentIntentResponse> createPaymentIntent(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @RequestBody CreatePaymentIntentRequest request) {
 
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
-
         // Enforce onboarding before payment: user must have a Stripe connected account
         var user = userDetailsRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -93,9 +88,7 @@ public class StripeController {
 
     @PostMapping("/payments/create-customer-session")
     public ResponseEntity<Map<String, String>> createCustomerSession(
-            @RequestHeader("Authorization") String authHeader) {
-
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
+            @AuthUser UUID userId) {
 
         var user = userDetailsRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -142,9 +135,7 @@ public class StripeController {
     // ==================== PLATFORM BALANCE (ADMIN/OPS) ====================
     @GetMapping("/balance")
     public ResponseEntity<Map<String, Object>> getPlatformBalance(
-            @RequestHeader("Authorization") String authHeader) {
-
-        authenticationService.validateAndExtractUserId(authHeader);
+            @AuthUser UUID userId) {
 
         try {
             Stripe.apiKey = stripeApiKey;
@@ -178,8 +169,7 @@ public class StripeController {
     // ==================== ONBOARDING OPERATIONS ====================
 
     @PostMapping("/onboarding/initiate")
-    public ResponseEntity<Map<String, String>> initiateOnboarding(@RequestHeader("Authorization") String authHeader) {
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
+    public ResponseEntity<Map<String, String>> initiateOnboarding(@AuthUser UUID userId) {
         System.out.println("📝 Initiating Stripe Connect onboarding for user: " + userId);
         String onboardingUrl = stripeConnectService.createConnectedAccountAndGetOnboardingLink(userId);
 
@@ -192,9 +182,7 @@ public class StripeController {
 
     @GetMapping("/onboarding/status")
     public ResponseEntity<Map<String, Object>> getOnboardingStatus(
-            @RequestHeader("Authorization") String authHeader) {
-
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
+            @AuthUser UUID userId) {
 
         var user = userDetailsRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -210,9 +198,8 @@ public class StripeController {
     // Simple check endpoint for frontend UX
     @GetMapping("/onboarding/check")
     public ResponseEntity<Map<String, Object>> checkOnboarding(
-            @RequestHeader("Authorization") String authHeader) {
+            @AuthUser UUID userId) {
 
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
         var user = userDetailsRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -240,9 +227,8 @@ public class StripeController {
      */
     @PostMapping("/onboarding/embedded/initiate")
     public ResponseEntity<Map<String, String>> initiateEmbeddedOnboarding(
-            @RequestHeader("Authorization") String authHeader) {
+            @AuthUser UUID userId) {
         
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
         System.out.println("📱 Initiating Stripe embedded onboarding for user: " + userId);
         
         String clientSecret = stripeEmbeddedOnboardingService.createConnectedAccountAndGetAccountSession(userId);
@@ -262,9 +248,7 @@ public class StripeController {
      */
     @GetMapping("/onboarding/embedded/status")
     public ResponseEntity<Map<String, Object>> getEmbeddedOnboardingStatus(
-            @RequestHeader("Authorization") String authHeader) {
-
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
+            @AuthUser UUID userId) {
 
         var user = userDetailsRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -287,11 +271,10 @@ public class StripeController {
 
     @PostMapping("/payouts/send")
     public ResponseEntity<Map<String, Object>> sendPayout(
-            @RequestHeader("Authorization") String authHeader,
+            @AuthUser UUID userId,
             @RequestBody Map<String, Object> payload) {
 
         try {
-            UUID userId = authenticationService.validateAndExtractUserId(authHeader);
             UUID winnerId = UUID.fromString(payload.get("winnerId").toString());
             UUID cubeId = UUID.fromString(payload.get("cubeId").toString());
             BigDecimal amount = new BigDecimal(payload.get("amount").toString());
@@ -1,12 +1,18 @@
 package com.example.cube.controller;
 
 import com.example.cube.dto.response.TransactionHistoryResponse;
-import com.example.cube.security.AuthenticationService;
+import com.example.cube.security.AuthUser;
+import com.example.cube.service.TransactionExportService;
 import com.example.cube.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -20,25 +26,54 @@ public class TransactionController {
     private TransactionService transactionService;
 
     @Autowired
-    private AuthenticationService authenticationService;
+    private TransactionExportService transactionExportService;
+
 
     /**
      * Get transaction history for logged-in user
-     * Shows all payments made and payouts received
+     * Shows payments made and payouts received, one page at a time
      *
-     * Endpoint: GET /api/transactions/my-history
+     * Endpoint: GET /api/transactions/my-history?limit=20
+     * Next page: pass nextBefore / nextBeforeId from the previous response as before / beforeId
      * Headers: Authorization: Bearer <token>
      */
     @GetMapping("/my-history")
     public ResponseEntity<TransactionHistoryResponse> getMyTransactionHistory(
-            @RequestHeader("Authorization") String authHeader) {
-
-        // Validate token and extract user ID
-        UUID userId = authenticationService.validateAndExtractUserId(authHeader);
+            @AuthUser UUID userId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) UUID beforeId) {
 
         // Get transaction history
-        TransactionHistoryResponse response = transactionService.getUserTransactionHistory(userId);
+        TransactionHistoryResponse response = transactionService.getUserTransactionHistory(userId, before, beforeId, limit);
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Stream a transaction export as CSV or NDJSON
+     * Finance users (cube.finance.user-ids) can filter by any cube / user / date range;
+     * everyone else only exports their own transactions
+     *
+     * Endpoint: GET /api/transactions/export?format=csv&cubeId=...&from=2025-01-01T00:00:00&to=2025-02-01T00:00:00
+     * Headers: Authorization: Bearer <token>
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @AuthUser UUID userId,
+            @RequestParam(defaultValue = TransactionExportService.CSV) String format,
+            @RequestParam(required = false) UUID cubeId,
+            @RequestParam(name = "userId", required = false) UUID filterUserId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        StreamingResponseBody body = transactionExportService.export(userId, format, cubeId, filterUserId, from, to);
+
+        boolean csv = TransactionExportService.CSV.equals(format);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.cube.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An active cube and when its next cycle is due.
+ */
+public interface CubeDueTime {
+    UUID getCubeId();
+    Instant getNextPayoutDate();
+}
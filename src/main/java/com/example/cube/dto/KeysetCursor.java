@@ -0,0 +1,28 @@
+package com.example.cube.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bounds for a keyset page ordered by (timestamp DESC, id DESC) and filtered with
+ * {@code (timestamp, id) < (:beforeTs, :beforeId)}.
+ */
+public record KeysetCursor(LocalDateTime timestamp, UUID id) {
+
+    // First page starts after the newest possible row
+    static final LocalDateTime START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    static final UUID START_ID = new UUID(-1L, -1L);
+    static final UUID MIN_ID = new UUID(0L, 0L);
+
+    public static KeysetCursor of(LocalDateTime before, UUID beforeId) {
+        if (before == null) {
+            return new KeysetCursor(START, START_ID);
+        }
+        // Timestamp-only cursor: exclude every row at exactly `before` (already on the previous page)
+        return new KeysetCursor(before, beforeId != null ? beforeId : MIN_ID);
+    }
+
+    public static int pageSize(int limit, int max) {
+        return Math.max(1, Math.min(limit, max));
+    }
+}
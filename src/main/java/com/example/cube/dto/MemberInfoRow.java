@@ -0,0 +1,19 @@
+package com.example.cube.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of the members screen: cube_members joined with user_details.
+ */
+public interface MemberInfoRow {
+    UUID getMemberId();
+    UUID getUserId();
+    Integer getRoleId();
+    Integer getStatusId();
+    LocalDateTime getJoinedAt();
+    Integer getPayoutPosition();
+    Boolean getHasReceivedPayout();
+    String getFirstName();
+    String getLastName();
+}
@@ -0,0 +1,24 @@
+package com.example.cube.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One exported transaction (scalar columns only, so streamed rows are never managed entities).
+ */
+public interface TransactionExportRow {
+    UUID getPaymentId();
+    UUID getUserId();
+    UUID getMemberId();
+    UUID getCubeId();
+    Integer getTypeId();
+    Integer getStatusId();
+    BigDecimal getAmount();
+    Integer getCycleNumber();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getProcessedAt();
+    String getStripePaymentIntentId();
+    String getStripeTransferId();
+    String getFailureReason();
+}
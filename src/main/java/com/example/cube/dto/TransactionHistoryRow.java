@@ -0,0 +1,25 @@
+package com.example.cube.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One transaction history row: transactions joined with the cube's name and currency.
+ */
+public interface TransactionHistoryRow {
+    UUID getPaymentId();
+    UUID getUserId();
+    UUID getCubeId();
+    Integer getTypeId();
+    Integer getStatusId();
+    BigDecimal getAmount();
+    Integer getCycleNumber();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getProcessedAt();
+    String getStripePaymentIntentId();
+    String getStripeTransferId();
+    String getFailureReason();
+    String getCubeName();
+    String getCurrency();
+}
@@ -7,6 +7,7 @@ import java.util.UUID;
 public class CubeActivityResponse {
     
     private String activityType;      // "PAYMENT", "WINNER", "MEMBER_JOIN", "CUBE_CREATED", "CUBE_JOINED"
+    private UUID activityId;          // ID of the underlying row; with timestamp, the paging cursor
     private String activityText;      // "Sarah M. contributed to pool"
     private String userName;          // "Sarah M."
     private UUID userId;
@@ -29,6 +30,14 @@ public class CubeActivityResponse {
         this.activityType = activityType;
     }
 
+    public UUID getActivityId() {
+        return activityId;
+    }
+
+    public void setActivityId(UUID activityId) {
+        this.activityId = activityId;
+    }
+
     public String getActivityText() {
         return activityText;
     }
@@ -0,0 +1,67 @@
+package com.example.cube.dto.response;
+
+import java.util.UUID;
+
+/**
+ * Everything GetCubeResponse has, plus the caller's membership in the cube
+ * and how many members have paid for the current cycle.
+ */
+public class CubeSummaryResponse extends GetCubeResponse {
+
+    private UUID memberId;
+    private Integer roleId;           // 1=admin, 2=member
+    private Integer memberStatusId;   // 1=has not paid, 2=paid
+    private String paymentStatus;     // "Paid" or "Has Not Paid"
+    private long paidCount;
+    private long memberCount;
+
+    public CubeSummaryResponse() {}
+
+    public UUID getMemberId() {
+        return memberId;
+    }
+
+    public void setMemberId(UUID memberId) {
+        this.memberId = memberId;
+    }
+
+    public Integer getRoleId() {
+        return roleId;
+    }
+
+    public void setRoleId(Integer roleId) {
+        this.roleId = roleId;
+    }
+
+    public Integer getMemberStatusId() {
+        return memberStatusId;
+    }
+
+    public void setMemberStatusId(Integer memberStatusId) {
+        this.memberStatusId = memberStatusId;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public void setPaymentStatus(String paymentStatus) {
+        this.paymentStatus = paymentStatus;
+    }
+
+    public long getPaidCount() {
+        return paidCount;
+    }
+
+    public void setPaidCount(long paidCount) {
+        this.paidCount = paidCount;
+    }
+
+    public long getMemberCount() {
+        return memberCount;
+    }
+
+    public void setMemberCount(long memberCount) {
+        this.memberCount = memberCount;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.cube.dto.response;
+
+import java.util.List;
+import java.util.UUID;
+
+public class GetMyCubesSummaryResponse {
+    private UUID userId;
+    private List<CubeSummaryResponse> cubes;
+
+    public GetMyCubesSummaryResponse() {}
+
+    public GetMyCubesSummaryResponse(UUID userId, List<CubeSummaryResponse> cubes) {
+        this.userId = userId;
+        this.cubes = cubes;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public List<CubeSummaryResponse> getCubes() {
+        return cubes;
+    }
+
+    public void setCubes(List<CubeSummaryResponse> cubes) {
+        this.cubes = cubes;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.cube.dto.response;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Response for user transaction history
@@ -13,6 +15,11 @@ public class TransactionHistoryResponse {
     private BigDecimal totalPayouts;
     private int totalCount;
 
+    // Cursor for the next page (createdAt / paymentId of the last transaction); null on the last page
+    private LocalDateTime nextBefore;
+    private UUID nextBeforeId;
+    private boolean hasMore;
+
     // Constructors
     public TransactionHistoryResponse() {}
 
@@ -44,4 +51,13 @@ public class TransactionHistoryResponse {
 
     public int getTotalCount() { return totalCount; }
     public void setTotalCount(int totalCount) { this.totalCount = totalCount; }
+
+    public LocalDateTime getNextBefore() { return nextBefore; }
+    public void setNextBefore(LocalDateTime nextBefore) { this.nextBefore = nextBefore; }
+
+    public UUID getNextBeforeId() { return nextBeforeId; }
+    public void setNextBeforeId(UUID nextBeforeId) { this.nextBeforeId = nextBeforeId; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
 }
\ No newline at end of file
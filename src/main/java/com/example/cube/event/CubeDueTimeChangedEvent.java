@@ -0,0 +1,11 @@
+package com.example.cube.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a cube's next payout time is set, moved or cleared (null),
+ * or when a change may have made an already-due cube processable (e.g. a payment).
+ */
+public record CubeDueTimeChangedEvent(UUID cubeId, Instant nextPayoutDate) {
+}
@@ -0,0 +1,10 @@
+package com.example.cube.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a cube_members row is inserted, updated or deleted
+ * (join, direct add, role or payment-status change).
+ */
+public record CubeMembershipChangedEvent(UUID userId, UUID cubeId) {
+}
@@ -0,0 +1,8 @@
+package com.example.cube.event;
+
+/**
+ * Published when a message is added to the email outbox, so it can be sent
+ * as soon as the enqueuing transaction commits.
+ */
+public record EmailQueuedEvent() {
+}
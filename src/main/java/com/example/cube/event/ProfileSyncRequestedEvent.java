@@ -0,0 +1,10 @@
+package com.example.cube.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a user's local profile is missing or still a placeholder
+ * and should be filled in from Supabase.
+ */
+public record ProfileSyncRequestedEvent(UUID userId) {
+}
@@ -0,0 +1,9 @@
+package com.example.cube.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a user_details row is inserted, updated or deleted.
+ */
+public record UserDetailsChangedEvent(UUID userId) {
+}
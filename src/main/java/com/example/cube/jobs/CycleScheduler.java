@@ -1,20 +1,54 @@
 package com.example.cube.jobs;
 
-import com.example.cube.model.Cube;
+import com.example.cube.dto.CubeDueTime;
+import com.example.cube.event.CubeDueTimeChangedEvent;
 import com.example.cube.repository.CubeRepository;
 import com.example.cube.service.CycleService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Fires each active cube's cycle when its nextPayoutDate is reached.
+ *
+ * Cubes due within the horizon get an in-memory timer. Timers are armed by a reconciliation
+ * scan (at startup and then every cube.scheduler.reconcile-ms) and re-armed after commit
+ * whenever a cube's due time changes (start, cycle processed, payment received). When a timer
+ * fires, the cube is handed to a bounded worker pool. The scan is the safety net for anything
+ * missed (restarts, other instances, cubes further out than the horizon); it reads due cubes
+ * as ID pages and processes a bounded number per pass, so catching up after downtime does not
+ * load every overdue cube at once.
+ */
 @Service
 public class CycleScheduler {
 
@@ -25,54 +59,309 @@ public class CycleScheduler {
     // In-memory per-cube lock to avoid double-processing within a single instance
     private final Set<UUID> processingCubes = ConcurrentHashMap.newKeySet();
 
+    // Cubes are processed in parallel; concurrency should stay below the DB connection pool size
+    private final ExecutorService workers;
+    private final Semaphore permits;
+    private final long cubeTimeoutMs;
+
+    // Due-time timers and per-cube timeout watchdogs
+    private final ScheduledThreadPoolExecutor timers;
+    private final Map<UUID, DueTimer> dueTimers = new ConcurrentHashMap<>();
+    private final Duration horizon;
+
+    // Paged draining of due cubes; passes run on the reconciler thread, one at a time
+    private final int pageSize;
+    private final int tickBudget;
+    private final long catchUpDelayMs;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private final AtomicBoolean passQueued = new AtomicBoolean();
+    private final ScheduledExecutorService reconciler;
+
+    private final Timer tickTimer;
+    private final Timer cycleTimer;
+
     @Autowired
-    public CycleScheduler(CubeRepository cubeRepository, CycleService cycleService) {
+    public CycleScheduler(CubeRepository cubeRepository, CycleService cycleService, MeterRegistry meterRegistry,
+                          @Value("${cube.scheduler.concurrency:8}") int concurrency,
+                          @Value("${cube.scheduler.virtual-threads:false}") boolean virtualThreads,
+                          @Value("${cube.scheduler.cube-timeout-ms:60000}") long cubeTimeoutMs,
+                          @Value("${cube.scheduler.horizon-ms:900000}") long horizonMs,
+                          @Value("${cube.scheduler.page-size:200}") int pageSize,
+                          @Value("${cube.scheduler.tick-budget:1000}") int tickBudget,
+                          @Value("${cube.scheduler.catch-up-delay-ms:1000}") long catchUpDelayMs) {
         this.cubeRepository = cubeRepository;
         this.cycleService = cycleService;
+        this.permits = new Semaphore(concurrency);
+        this.cubeTimeoutMs = cubeTimeoutMs;
+        this.horizon = Duration.ofMillis(horizonMs);
+        this.pageSize = pageSize;
+        this.tickBudget = Math.max(1, tickBudget);
+        this.catchUpDelayMs = catchUpDelayMs;
+
+        if (virtualThreads) {
+            this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cycle-worker-", 0).factory());
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+                Thread thread = new Thread(runnable, "cycle-worker-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        this.timers = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cycle-due-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timers.setRemoveOnCancelPolicy(true);
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cycle-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.tickTimer = Timer.builder("cube.scheduler.tick")
+                .description("Duration of one reconciliation pass over due cubes")
+                .register(meterRegistry);
+        this.cycleTimer = Timer.builder("cube.scheduler.cycle")
+                .description("Duration of processing one cube's cycle")
+                .register(meterRegistry);
+        Gauge.builder("cube.scheduler.armed", dueTimers, Map::size)
+                .description("Cubes with an armed due-time timer")
+                .register(meterRegistry);
     }
 
     /**
-     * Runs every 3 mins to check for cubes ready to process
-     * For testing with 1-minute cycles, 30 seconds gives quick response
+     * Reconciliation scan: process cubes that are already due and arm timers for cubes due
+     * within the horizon. Runs at startup, then every cube.scheduler.reconcile-ms.
+     *
+     * The pass itself runs on the reconcile thread. Spring's scheduler has a single thread
+     * shared by every @Scheduled job (JWKS and reference data refresh, email outbox, ledger),
+     * so it must never wait on cycle processing.
      */
-    @Scheduled(fixedRate = 30000)  // every 3 mins
+    @Scheduled(fixedDelayString = "${cube.scheduler.reconcile-ms:300000}")
     public void processReadyCubes() {
-        logger.info("Scheduler: Checking for cubes ready to process...");
+        // At most one pass queued behind the running one
+        if (passQueued.compareAndSet(false, true)) {
+            reconciler.execute(() -> {
+                passQueued.set(false);
+                reconcile(Cursor.START);
+            });
+        }
+    }
+
+    /**
+     * Walk the due cubes in pages of cube.scheduler.page-size, starting after the cursor.
+     * Each page is finished before the next is loaded, and at most cube.scheduler.tick-budget
+     * due cubes are processed per pass; if the budget runs out, a catch-up pass resumes from
+     * where this one stopped shortly afterwards.
+     */
+    private void reconcile(Cursor from) {
+        // Scheduled and catch-up passes never overlap
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        long tickStart = System.nanoTime();
+        Cursor resumeAt = null;
 
         try {
-            // Find cubes where nextPayoutDate has been reached
-            List<Cube> readyCubes = cubeRepository.findCubesReadyForProcessing(Instant.now());
+            Instant now = Instant.now();
+            Instant before = now.plus(horizon);
+            Cursor cursor = from;
+            int armed = 0;
+            int processed = 0;
+            int succeeded = 0;
 
-            if (readyCubes.isEmpty()) {
-                logger.debug("Scheduler: No cubes ready for processing");
-                return;
-            }
+            while (true) {
+                List<CubeDueTime> page = cubeRepository.findActiveCubesDuePage(
+                        before, cursor.dueAt(), cursor.cubeId(), Limit.of(pageSize));
 
-            logger.info("Scheduler: Found {} cube(s) ready for processing", readyCubes.size());
+                List<CubeTask> tasks = new ArrayList<>();
+                for (CubeDueTime cube : page) {
+                    if (cube.getNextPayoutDate().isAfter(now)) {
+                        arm(cube.getCubeId(), cube.getNextPayoutDate());
+                        armed++;
+                    } else if (processed >= tickBudget) {
+                        resumeAt = cursor;
+                        break;
+                    } else {
+                        processed++;
+                        CubeTask task = dispatch(cube.getCubeId());
+                        if (task != null) {
+                            tasks.add(task);
+                        }
+                    }
+                    cursor = new Cursor(cube.getNextPayoutDate(), cube.getCubeId());
+                }
 
-            // Process each cube with per-cube locking
-            for (Cube cube : readyCubes) {
-                UUID cubeId = cube.getCubeId();
-                // Attempt to acquire lock for this cube
-                if (!processingCubes.add(cubeId)) {
-                    logger.info("Scheduler: Cube {} is already being processed; skipping", cubeId);
-                    continue;
+                // Wait for this page before loading the next one
+                for (CubeTask task : tasks) {
+                    if (await(task)) {
+                        succeeded++;
+                    }
                 }
-                try {
-                    logger.info("Scheduler: Processing cycle for cube: {}", cubeId);
-                    cycleService.processCycle(cubeId);
-                    logger.info("Scheduler: Successfully processed cube: {}", cubeId);
-                } catch (Exception e) {
-                    logger.error("Scheduler: Error processing cube {}: {}", cubeId, e.getMessage(), e);
-                    // Continue to next cube even if one fails
-                } finally {
-                    // Release lock
-                    processingCubes.remove(cubeId);
+
+                if (resumeAt != null || page.size() < pageSize) {
+                    break;
                 }
             }
 
+            logger.info("Scheduler: Armed {} upcoming cube(s), processed {}/{} due cube(s) in {} ms{}",
+                    armed, succeeded, processed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - tickStart),
+                    resumeAt != null ? "; tick budget reached, catching up" : "");
+
+        } catch (InterruptedException e) {
+            // Shutting down
+            Thread.currentThread().interrupt();
+            resumeAt = null;
         } catch (Exception e) {
             logger.error("Scheduler: Error in processReadyCubes: {}", e.getMessage(), e);
+        } finally {
+            tickTimer.record(System.nanoTime() - tickStart, TimeUnit.NANOSECONDS);
+            reconciling.set(false);
+        }
+
+        if (resumeAt != null) {
+            Cursor next = resumeAt;
+            reconciler.schedule(() -> reconcile(next), catchUpDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Re-arm (or disarm) a cube's timer once the change that moved its due time has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDueTimeChanged(CubeDueTimeChangedEvent event) {
+        arm(event.cubeId(), event.nextPayoutDate());
+    }
+
+    private void arm(UUID cubeId, Instant dueAt) {
+        if (dueAt == null || dueAt.isAfter(Instant.now().plus(horizon))) {
+            // Not scheduled, or far enough out for the reconciliation scan to pick it up later
+            DueTimer previous = dueTimers.remove(cubeId);
+            if (previous != null) {
+                previous.cancel();
+            }
+            return;
+        }
+
+        long delayMs = Math.max(0, Duration.between(Instant.now(), dueAt).toMillis());
+        DueTimer timer = new DueTimer(cubeId);
+        DueTimer previous = dueTimers.put(cubeId, timer);
+        if (previous != null) {
+            previous.cancel();
+        }
+        timer.future = timers.schedule(timer, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hand one cube to the worker pool, unless it is already being processed here.
+     */
+    private CubeTask dispatch(UUID cubeId) {
+        // Attempt to acquire lock for this cube
+        if (!processingCubes.add(cubeId)) {
+            logger.info("Scheduler: Cube {} is already being processed; skipping", cubeId);
+            return null;
+        }
+        CubeTask task = new CubeTask(cubeId);
+        try {
+            task.future = workers.submit(() -> process(task));
+            return task;
+        } catch (RuntimeException e) {
+            processingCubes.remove(cubeId);
+            logger.error("Scheduler: Could not dispatch cube {}: {}", cubeId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Process one cube on a worker thread. Failures are logged here, so nobody has to wait on
+     * the future just to report them; returns whether the cycle was processed.
+     */
+    private boolean process(CubeTask task) throws InterruptedException {
+        permits.acquire();
+        // The timeout counts from when processing starts, not from dispatch
+        ScheduledFuture<?> watchdog = timers.schedule(() -> timeOut(task), cubeTimeoutMs, TimeUnit.MILLISECONDS);
+        try {
+            logger.info("Scheduler: Processing cycle for cube: {}", task.cubeId);
+            cycleTimer.record(() -> cycleService.processCycle(task.cubeId));
+            logger.info("Scheduler: Successfully processed cube: {}", task.cubeId);
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Scheduler: Error processing cube {}: {}", task.cubeId, e.getMessage(), e);
+            // Continue to next cube even if one fails
+            return false;
+        } finally {
+            watchdog.cancel(false);
+            permits.release();
+            // Release lock
+            processingCubes.remove(task.cubeId);
+        }
+    }
+
+    private void timeOut(CubeTask task) {
+        Future<Boolean> future = task.future;
+        if (future != null && future.cancel(true)) {
+            // The cube stays locked until the worker actually exits, so it can't be picked up twice
+            logger.error("Scheduler: Cube {} timed out after {} ms", task.cubeId, cubeTimeoutMs);
+        }
+    }
+
+    private boolean await(CubeTask task) throws InterruptedException {
+        try {
+            return task.future.get();
+        } catch (CancellationException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // Only reached for errors process() does not handle (e.g. interrupted while waiting for a permit)
+            Throwable cause = e.getCause();
+            logger.error("Scheduler: Error processing cube {}: {}", task.cubeId, cause.getMessage(), cause);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+        timers.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private final class DueTimer implements Runnable {
+        private final UUID cubeId;
+        private volatile ScheduledFuture<?> future;
+
+        private DueTimer(UUID cubeId) {
+            this.cubeId = cubeId;
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            dueTimers.remove(cubeId, this);
+            // Fire and forget: the worker logs its own outcome
+            dispatch(cubeId);
+        }
+    }
+
+    private record Cursor(Instant dueAt, UUID cubeId) {
+        static final Cursor START = new Cursor(Instant.EPOCH, new UUID(0L, 0L));
+    }
+
+    private static final class CubeTask {
+        private final UUID cubeId;
+        private volatile Future<Boolean> future;
+
+        private CubeTask(UUID cubeId) {
+            this.cubeId = cubeId;
         }
     }
 }
@@ -0,0 +1,204 @@
+package com.example.cube.jobs;
+
+import com.example.cube.config.HttpClientConfig;
+import com.example.cube.event.EmailQueuedEvent;
+import com.example.cube.model.EmailOutboxMessage;
+import com.example.cube.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends queued emails from the email_outbox table.
+ *
+ * A drain runs right after a transaction that queued mail commits, and on a fixed
+ * delay as a safety net. Each batch is claimed with FOR UPDATE SKIP LOCKED in a short
+ * transaction that pushes the rows' next attempt past a lease, so several instances
+ * can drain concurrently and no DB connection is held while Resend is called. Failed
+ * sends are retried with exponential backoff; the dedup key is sent as Resend's
+ * Idempotency-Key so a retry after an unacknowledged send is not delivered twice.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final RestTemplate restTemplate;
+    private final TransactionTemplate transaction;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    // At most one drain queued behind the running one
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "email-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${resend.api.url:https://api.resend.com}")
+    private String resendUrl;
+
+    @Value("${resend.api.key}")
+    private String resendApiKey;
+
+    @Value("${resend.from.email:no-reply@cubemoney.io}")
+    private String fromEmail;
+
+    @Value("${cube.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${cube.email.outbox.lease-ms:120000}")
+    private long leaseMs;
+
+    @Value("${cube.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${cube.email.outbox.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${cube.email.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 @Qualifier(HttpClientConfig.RESEND) RestTemplate restTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.restTemplate = restTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.sentCounter = meterRegistry.counter("cube.email.outbox", "result", "sent");
+        this.retriedCounter = meterRegistry.counter("cube.email.outbox", "result", "retried");
+        this.failedCounter = meterRegistry.counter("cube.email.outbox", "result", "failed");
+    }
+
+    /**
+     * Runs after the enqueuing transaction commits, so the rows are visible.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmailQueued(EmailQueuedEvent event) {
+        requestDrain();
+    }
+
+    // Picks up retries that have come due and anything queued on another instance
+    @Scheduled(fixedDelayString = "${cube.email.outbox.poll-ms:30000}")
+    public void poll() {
+        requestDrain();
+    }
+
+    private void requestDrain() {
+        if (drainQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                drainQueued.set(false);
+                drain();
+            });
+        }
+    }
+
+    private void drain() {
+        try {
+            List<EmailOutboxMessage> batch;
+            do {
+                batch = claimBatch();
+                for (EmailOutboxMessage message : batch) {
+                    send(message);
+                }
+            } while (batch.size() >= batchSize);
+        } catch (Exception e) {
+            logger.error("Email outbox: drain failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lock a batch of due messages and lease them to this instance before any sending starts.
+     */
+    private List<EmailOutboxMessage> claimBatch() {
+        return transaction.execute(status -> {
+            List<EmailOutboxMessage> batch = outboxRepository.lockDueBatch(batchSize);
+            Instant leaseUntil = Instant.now().plusMillis(leaseMs);
+            for (EmailOutboxMessage message : batch) {
+                message.setAttempts(message.getAttempts() + 1);
+                message.setNextAttemptAt(leaseUntil);
+            }
+            return batch;
+        });
+    }
+
+    private void send(EmailOutboxMessage message) {
+        try {
+            post(message);
+            transaction.executeWithoutResult(status -> outboxRepository.markSent(message.getMessageId(), Instant.now()));
+            sentCounter.increment();
+        } catch (Exception e) {
+            String error = e.getMessage();
+            // 4xx other than rate limiting will not succeed on retry
+            boolean permanent = e instanceof HttpClientErrorException clientError
+                    && clientError.getStatusCode().value() != 429
+                    && clientError.getStatusCode().value() != 409;
+
+            if (permanent || message.getAttempts() >= maxAttempts) {
+                logger.error("Email outbox: giving up on {} to {} after {} attempt(s): {}",
+                        message.getDedupKey(), message.getRecipient(), message.getAttempts(), error);
+                transaction.executeWithoutResult(status -> outboxRepository.markFailed(message.getMessageId(), error));
+                failedCounter.increment();
+            } else {
+                long delay = Math.min(initialBackoffMs << Math.min(message.getAttempts() - 1, 20), maxBackoffMs);
+                logger.warn("Email outbox: send of {} failed (attempt {}), retrying in {} ms: {}",
+                        message.getDedupKey(), message.getAttempts(), delay, error);
+                transaction.executeWithoutResult(status -> outboxRepository.markRetry(
+                        message.getMessageId(), Instant.now().plusMillis(delay), error));
+                retriedCounter.increment();
+            }
+        }
+    }
+
+    private void post(EmailOutboxMessage message) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + resendApiKey);
+        headers.set("Idempotency-Key", message.getDedupKey());
+
+        JSONObject emailBody = new JSONObject();
+        emailBody.put("from", fromEmail);
+        emailBody.put("to", message.getRecipient());
+        emailBody.put("subject", message.getSubject());
+        emailBody.put("html", message.getHtml());
+
+        HttpEntity<String> request = new HttpEntity<>(emailBody.toString(), headers);
+        ResponseEntity<String> response = restTemplate.postForEntity(resendUrl + "/emails", request, String.class);
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new RuntimeException("Failed to send email: " + response.getBody());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
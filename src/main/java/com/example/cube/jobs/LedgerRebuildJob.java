@@ -0,0 +1,36 @@
+package com.example.cube.jobs;
+
+import com.example.cube.service.LedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Periodically verifies ledger_balances against transactions and rebuilds it.
+ * Disabled unless cube.ledger.rebuild-cron is set (e.g. "0 30 3 * * *").
+ */
+@Service
+public class LedgerRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerRebuildJob.class);
+
+    private final LedgerService ledgerService;
+
+    public LedgerRebuildJob(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    @Scheduled(cron = "${cube.ledger.rebuild-cron:-}")
+    public void rebuildLedger() {
+        try {
+            LedgerService.RebuildResult result = ledgerService.rebuild();
+            logger.info("Ledger: balances rebuilt, {} row(s)", result.rows());
+            if (result.mismatches() > 0) {
+                logger.warn("Ledger: {} balance row(s) had drifted from transactions and were rebuilt", result.mismatches());
+            }
+        } catch (Exception e) {
+            logger.error("Ledger: rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -2,10 +2,13 @@ package com.example.cube.mapper;
 
 import com.example.cube.dto.request.CreateCubeRequest;
 import com.example.cube.dto.response.CreateCubeResponse;
+import com.example.cube.dto.response.CubeSummaryResponse;
 import com.example.cube.dto.response.GetCubeResponse;
 import com.example.cube.dto.response.StartCubeResponse;
 import com.example.cube.model.Cube;
-import com.example.cube.model.DurationOption;
+import com.example.cube.model.CubeMember;
+import com.example.cube.reference.MemberStatusId;
+import com.example.cube.reference.ReferenceDataRegistry;
 import org.springframework.stereotype.Component;
 
 /**
@@ -14,18 +17,21 @@ import org.springframework.stereotype.Component;
 @Component
 public class CubeMapper {
 
+    private final ReferenceDataRegistry referenceData;
+
+    public CubeMapper(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
+    }
+
     // Request → Entity
     public Cube toEntity(CreateCubeRequest dto) {
         Cube cube = new Cube();
-        DurationOption duration = new DurationOption(); // temporary placeholder
-
-        duration.setDurationId(dto.getDurationId());
         cube.setName(dto.getName());
         cube.setDescription(dto.getDescription());
         cube.setAmountPerCycle(dto.getAmountPerCycle());
         cube.setNumberofmembers(dto.getNumberofmembers());
         cube.setCurrency(dto.getCurrency());
-        cube.setDuration(duration);
+        cube.setDurationId(dto.getDurationId());
         return cube;
     }
 
@@ -47,14 +53,12 @@ public class CubeMapper {
         res.setCreatedAt(cube.getCreatedAt());
         res.setInvitationCode(cube.getInvitationCode());
 
-        if (cube.getDuration() != null) {
-            res.setDurationId(cube.getDuration().getDurationId());
-        }
+        res.setDurationId(cube.getDurationId());
 
-        if (cube.getGoalType() != null) {
-            res.setGoalTypeId(cube.getGoalType().getGoalTypeId());
-            res.setGoalTypeName(cube.getGoalType().getGoalTypeName());
-        }
+        referenceData.goalType(cube.getGoalTypeId()).ifPresent(goal -> {
+            res.setGoalTypeId(goal.id());
+            res.setGoalTypeName(goal.name());
+        });
 
         return res;
     }
@@ -72,7 +76,22 @@ public class CubeMapper {
     }
 
     public GetCubeResponse toGetCubeResponse(Cube cube) {
-        GetCubeResponse response = new GetCubeResponse();
+        return fillCubeResponse(new GetCubeResponse(), cube);
+    }
+
+    // Entity + caller's membership → CubeSummaryResponse
+    public CubeSummaryResponse toCubeSummaryResponse(Cube cube, CubeMember membership, long paidCount, long memberCount) {
+        CubeSummaryResponse response = fillCubeResponse(new CubeSummaryResponse(), cube);
+        response.setMemberId(membership.getMemberId());
+        response.setRoleId(membership.getRoleId());
+        response.setMemberStatusId(membership.getStatusId());
+        response.setPaymentStatus(MemberStatusId.PAID.is(membership.getStatusId()) ? "Paid" : "Has Not Paid");
+        response.setPaidCount(paidCount);
+        response.setMemberCount(memberCount);
+        return response;
+    }
+
+    private <T extends GetCubeResponse> T fillCubeResponse(T response, Cube cube) {
         response.setCubeId(cube.getCubeId());
         response.setUserId(cube.getUser_id());
         response.setName(cube.getName());
@@ -91,15 +110,15 @@ public class CubeMapper {
                 cube.getTotalAmountCollected() != null ? cube.getTotalAmountCollected() : java.math.BigDecimal.ZERO);
 
         // Add contribution frequency from duration
-        if (cube.getDuration() != null) {
-            response.setContributionFrequency(cube.getDuration().getDurationName());
-            response.setContributionFrequencyDays(cube.getDuration().getDurationDays());
-        }
+        referenceData.duration(cube.getDurationId()).ifPresent(duration -> {
+            response.setContributionFrequency(duration.name());
+            response.setContributionFrequencyDays(duration.days());
+        });
 
-        if (cube.getGoalType() != null) {
-            response.setGoalTypeId(cube.getGoalType().getGoalTypeId());
-            response.setGoalTypeName(cube.getGoalType().getGoalTypeName());
-        }
+        referenceData.goalType(cube.getGoalTypeId()).ifPresent(goal -> {
+            response.setGoalTypeId(goal.id());
+            response.setGoalTypeName(goal.name());
+        });
 
         return response;
     }
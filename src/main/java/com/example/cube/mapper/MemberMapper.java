@@ -1,49 +1,34 @@
 package com.example.cube.mapper;
 
+import com.example.cube.dto.MemberInfoRow;
 import com.example.cube.dto.response.GetCubeMembersResponse;
-import com.example.cube.model.CubeMember;
-import com.example.cube.model.UserDetails;
-import com.example.cube.repository.UserDetailsRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.cube.reference.MemberStatusId;
+import com.example.cube.reference.RoleId;
 import org.springframework.stereotype.Component;
 
 /**
- * Handles conversions between CubeMember entities and response DTOs.
+ * Handles conversions from cube member rows to response DTOs.
  */
 @Component
 public class MemberMapper {
 
-    private final UserDetailsRepository userDetailsRepository;
-
-    @Autowired
-    public MemberMapper(UserDetailsRepository userDetailsRepository) {
-        this.userDetailsRepository = userDetailsRepository;
-    }
-
     /**
-     * Converts a CubeMember entity to MemberInfo DTO
+     * Converts a members screen projection row to MemberInfo DTO (names already joined in)
      */
-    public GetCubeMembersResponse.MemberInfo toMemberInfo(CubeMember member) {
+    public GetCubeMembersResponse.MemberInfo toMemberInfo(MemberInfoRow row) {
         GetCubeMembersResponse.MemberInfo info = new GetCubeMembersResponse.MemberInfo();
 
-        info.setUserId(member.getUserId());
-        info.setMemberId(member.getMemberId());
-        info.setRoleName(member.getRoleId() == 1 ? "admin" : "member");
-        info.setJoinedAt(member.getJoinedAt());
-        info.setHasReceivedPayout(member.getHasReceivedPayout());
-        info.setPayoutPosition(member.getPayoutPosition());
-
-        // Map payment status
-        info.setStatusId(member.getStatusId());
-        info.setPaymentStatus(member.getStatusId() == 2 ? "Paid" : "Has Not Paid");
-
-        // Populate names from user_details if available
-        UserDetails ud = userDetailsRepository.findById(member.getUserId()).orElse(null);
-        if (ud != null) {
-            info.setFirstName(ud.getFirstName());
-            info.setLastName(ud.getLastName());
-        }
+        info.setUserId(row.getUserId());
+        info.setMemberId(row.getMemberId());
+        info.setRoleName(RoleId.ADMIN.is(row.getRoleId()) ? "admin" : "member");
+        info.setJoinedAt(row.getJoinedAt());
+        info.setHasReceivedPayout(row.getHasReceivedPayout());
+        info.setPayoutPosition(row.getPayoutPosition());
+        info.setStatusId(row.getStatusId());
+        info.setPaymentStatus(MemberStatusId.PAID.is(row.getStatusId()) ? "Paid" : "Has Not Paid");
+        info.setFirstName(row.getFirstName());
+        info.setLastName(row.getLastName());
 
         return info;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,7 @@
 package com.example.cube.mapper;
 
+import com.example.cube.dto.TransactionHistoryRow;
 import com.example.cube.dto.response.TransactionDTO;
-import com.example.cube.model.Cube;
-import com.example.cube.model.Transaction;
-import com.example.cube.repository.CubeRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -13,13 +10,10 @@ import org.springframework.stereotype.Component;
 @Component
 public class TransactionMapper {
 
-    @Autowired
-    private CubeRepository cubeRepository;
-
     /**
-     * Convert Transaction entity to DTO with enriched information
+     * Convert a transaction history row (already joined with its cube) to DTO
      */
-    public TransactionDTO toDTO(Transaction transaction) {
+    public TransactionDTO toDTO(TransactionHistoryRow transaction) {
         TransactionDTO dto = new TransactionDTO();
 
         // Basic fields
@@ -40,10 +34,9 @@ public class TransactionMapper {
         // Convert status ID to human-readable name
         dto.setStatus(getTransactionStatus(transaction.getStatusId()));
 
-        // Get cube name and currency
-        Cube cube = cubeRepository.findById(transaction.getCubeId()).orElse(null);
-        dto.setCubeName(cube != null ? cube.getName() : "Unknown Cube");
-        dto.setCurrency(cube != null ? cube.getCurrency() : "USD");
+        // Cube name and currency come from the join
+        dto.setCubeName(transaction.getCubeName() != null ? transaction.getCubeName() : "Unknown Cube");
+        dto.setCurrency(transaction.getCurrency() != null ? transaction.getCurrency() : "USD");
 
         return dto;
     }
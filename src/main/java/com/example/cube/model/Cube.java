@@ -32,9 +32,9 @@ public class Cube {
     @Column(nullable = false)
     private Integer numberofmembers;
 
-    @ManyToOne
-    @JoinColumn(name = "duration_id", referencedColumnName = "duration_id")
-    private DurationOption duration;
+    // Resolved through ReferenceDataRegistry rather than a JPA association
+    @Column(name = "duration_id")
+    private Integer durationId;
 
     @Column(name = "next_payout_date")
     private Instant nextPayoutDate;
@@ -55,9 +55,8 @@ public class Cube {
     @Column(name = "rotation_id")
     private Integer rotationId;
 
-    @ManyToOne
-    @JoinColumn(name = "goal_type_id", referencedColumnName = "goal_type_id")
-    private GoalType goalType;
+    @Column(name = "goal_type_id")
+    private Integer goalTypeId;
 
     @Column(name = "invitation_code", unique = true, length = 6)
     private String invitationCode;
@@ -96,9 +95,9 @@ public class Cube {
 
     public void setNumberofmembers(Integer numberofmembers) { this.numberofmembers = numberofmembers;}
 
-    public DurationOption getDuration() { return duration;}
+    public Integer getDurationId() { return durationId;}
 
-    public void setDuration(DurationOption duration) {this.duration = duration;}
+    public void setDurationId(Integer durationId) {this.durationId = durationId;}
 
     public Instant getStartDate() { return startDate;}
 
@@ -134,9 +133,9 @@ public class Cube {
 
     public void setRotationId(Integer rotationId) { this.rotationId = rotationId; }
 
-    public GoalType getGoalType() { return goalType; }
+    public Integer getGoalTypeId() { return goalTypeId; }
 
-    public void setGoalType(GoalType goalType) { this.goalType = goalType; }
+    public void setGoalTypeId(Integer goalTypeId) { this.goalTypeId = goalTypeId; }
 
     public String getInvitationCode() { return invitationCode; }
 
@@ -0,0 +1,134 @@
+package com.example.cube.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Append-only activity log backing the cube and user activity feeds.
+ * User and cube names are copied in when the event is recorded, so feed reads need no joins.
+ */
+@Entity
+@Table(name = "cube_activity_events", schema = "public")
+public class CubeActivityEvent {
+
+    public static final String CUBE_CREATED = "CUBE_CREATED";
+    public static final String MEMBER_JOIN = "MEMBER_JOIN";
+    public static final String PAYMENT = "PAYMENT";
+    public static final String WINNER = "WINNER";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "event_id", columnDefinition = "uuid")
+    private UUID eventId;
+
+    @Column(name = "cube_id", nullable = false)
+    private UUID cubeId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "activity_type", nullable = false, length = 32)
+    private String activityType;
+
+    // Primary key of the row this event was recorded for (cube, member, transaction or winner)
+    @Column(name = "source_id", nullable = false)
+    private UUID sourceId;
+
+    @Column(name = "user_name")
+    private String userName;
+
+    @Column(name = "cube_name")
+    private String cubeName;
+
+    @Column(name = "amount")
+    private BigDecimal amount;
+
+    @Column(name = "cycle_number")
+    private Integer cycleNumber;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt = LocalDateTime.now();
+
+    // Getters and Setters
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+
+    public UUID getCubeId() {
+        return cubeId;
+    }
+
+    public void setCubeId(UUID cubeId) {
+        this.cubeId = cubeId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public String getActivityType() {
+        return activityType;
+    }
+
+    public void setActivityType(String activityType) {
+        this.activityType = activityType;
+    }
+
+    public UUID getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(UUID sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getCubeName() {
+        return cubeName;
+    }
+
+    public void setCubeName(String cubeName) {
+        this.cubeName = cubeName;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Integer getCycleNumber() {
+        return cycleNumber;
+    }
+
+    public void setCycleNumber(Integer cycleNumber) {
+        this.cycleNumber = cycleNumber;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
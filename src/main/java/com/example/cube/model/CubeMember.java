@@ -6,6 +6,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "cube_members", schema = "public")
+@EntityListeners(CubeMemberChangeListener.class)
 public class CubeMember {
 
     // ========== Primary Key ==========
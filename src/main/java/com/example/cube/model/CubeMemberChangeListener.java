@@ -0,0 +1,29 @@
+package com.example.cube.model;
+
+import com.example.cube.event.CubeMembershipChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns cube_members writes into {@link CubeMembershipChangedEvent}s,
+ * so cached memberships can be dropped.
+ */
+@Component
+public class CubeMemberChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CubeMemberChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(CubeMember member) {
+        eventPublisher.publishEvent(new CubeMembershipChangedEvent(member.getUserId(), member.getCubeId()));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.cube.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Running transaction totals for one user or one cube.
+ * Rows are only changed through SQL increments (see LedgerBalanceRepository), never by saving the entity.
+ */
+@Entity
+@Table(name = "ledger_balances", schema = "public")
+@IdClass(LedgerBalance.Key.class)
+public class LedgerBalance {
+
+    public static final String USER = "USER";
+    public static final String CUBE = "CUBE";
+
+    @Id
+    @Column(name = "owner_type", length = 8)
+    private String ownerType;
+
+    @Id
+    @Column(name = "owner_id", columnDefinition = "uuid")
+    private UUID ownerId;
+
+    // Completed payments
+    @Column(name = "contributed", nullable = false)
+    private BigDecimal contributed = BigDecimal.ZERO;
+
+    // Completed payouts
+    @Column(name = "paid_out", nullable = false)
+    private BigDecimal paidOut = BigDecimal.ZERO;
+
+    @Column(name = "pending", nullable = false)
+    private BigDecimal pending = BigDecimal.ZERO;
+
+    @Column(name = "failed", nullable = false)
+    private BigDecimal failed = BigDecimal.ZERO;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public String getOwnerType() { return ownerType; }
+    public void setOwnerType(String ownerType) { this.ownerType = ownerType; }
+
+    public UUID getOwnerId() { return ownerId; }
+    public void setOwnerId(UUID ownerId) { this.ownerId = ownerId; }
+
+    public BigDecimal getContributed() { return contributed; }
+    public void setContributed(BigDecimal contributed) { this.contributed = contributed; }
+
+    public BigDecimal getPaidOut() { return paidOut; }
+    public void setPaidOut(BigDecimal paidOut) { this.paidOut = paidOut; }
+
+    public BigDecimal getPending() { return pending; }
+    public void setPending(BigDecimal pending) { this.pending = pending; }
+
+    public BigDecimal getFailed() { return failed; }
+    public void setFailed(BigDecimal failed) { this.failed = failed; }
+
+    public Long getTransactionCount() { return transactionCount; }
+    public void setTransactionCount(Long transactionCount) { this.transactionCount = transactionCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String ownerType;
+        private UUID ownerId;
+
+        public Key() {}
+
+        public Key(String ownerType, UUID ownerId) {
+            this.ownerType = ownerType;
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(ownerType, key.ownerType) && Objects.equals(ownerId, key.ownerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ownerType, ownerId);
+        }
+    }
+}
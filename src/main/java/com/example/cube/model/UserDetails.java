@@ -5,6 +5,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "user_details", schema = "public")
+@EntityListeners(UserDetailsChangeListener.class)
 public class UserDetails {
 
     @Id
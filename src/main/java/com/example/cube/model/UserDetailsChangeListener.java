@@ -0,0 +1,29 @@
+package com.example.cube.model;
+
+import com.example.cube.event.UserDetailsChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns user_details writes into {@link UserDetailsChangedEvent}s,
+ * so in-memory caches keyed by user can drop stale entries.
+ */
+@Component
+public class UserDetailsChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserDetailsChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(UserDetails details) {
+        eventPublisher.publishEvent(new UserDetailsChangedEvent(details.getUser_id()));
+    }
+}
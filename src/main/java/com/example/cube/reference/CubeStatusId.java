@@ -0,0 +1,26 @@
+package com.example.cube.reference;
+
+/**
+ * Rows of the cube_status table that the code relies on.
+ */
+public enum CubeStatusId implements ReferenceId {
+    DRAFT(1),
+    ACTIVE(2),
+    COMPLETED(3),
+    CANCELLED(4);
+
+    private final int id;
+
+    CubeStatusId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public static CubeStatusId fromId(int id) {
+        return ReferenceId.fromId(CubeStatusId.class, id);
+    }
+}
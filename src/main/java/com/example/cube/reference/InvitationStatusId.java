@@ -0,0 +1,24 @@
+package com.example.cube.reference;
+
+/**
+ * Values of cube_invitations.status_id.
+ */
+public enum InvitationStatusId implements ReferenceId {
+    PENDING(1),
+    ACCEPTED(2);
+
+    private final int id;
+
+    InvitationStatusId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public static InvitationStatusId fromId(int id) {
+        return ReferenceId.fromId(InvitationStatusId.class, id);
+    }
+}
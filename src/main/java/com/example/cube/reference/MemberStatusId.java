@@ -0,0 +1,24 @@
+package com.example.cube.reference;
+
+/**
+ * Rows of the member_status table that the code relies on.
+ */
+public enum MemberStatusId implements ReferenceId {
+    NOT_PAID(1),
+    PAID(2);
+
+    private final int id;
+
+    MemberStatusId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public static MemberStatusId fromId(int id) {
+        return ReferenceId.fromId(MemberStatusId.class, id);
+    }
+}
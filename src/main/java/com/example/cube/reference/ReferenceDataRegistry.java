@@ -0,0 +1,189 @@
+package com.example.cube.reference;
+
+import com.example.cube.model.*;
+import com.example.cube.repository.*;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the lookup tables (cube_status, duration, goal_type, roles,
+ * rotation_system, member_status, transaction_status, transaction_type).
+ *
+ * Loaded at startup and reloaded periodically; every load builds a new immutable
+ * snapshot that replaces the previous one, so lookups are plain map reads. An ID
+ * that is not in the snapshot (e.g. a row added since the last load) triggers an
+ * early reload, at most once per {@code cube.reference-data.min-reload-interval-ms}.
+ */
+@Component
+public class ReferenceDataRegistry {
+
+    // goal_type row used when a cube is created without one ("personal")
+    public static final int DEFAULT_GOAL_TYPE_ID = 1;
+
+    private final CubeStatusRepository cubeStatusRepository;
+    private final DurationOptionRepository durationOptionRepository;
+    private final GoalTypeRepository goalTypeRepository;
+    private final RoleRepository roleRepository;
+    private final RotationSystemRepository rotationSystemRepository;
+    private final MemberStatusRepository memberStatusRepository;
+    private final TransactionStatusRepository transactionStatusRepository;
+    private final TransactionTypeRepository transactionTypeRepository;
+
+    @Value("${cube.reference-data.min-reload-interval-ms:5000}")
+    private long minReloadIntervalMs;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile long lastLoadedAt;
+
+    public ReferenceDataRegistry(CubeStatusRepository cubeStatusRepository,
+                                 DurationOptionRepository durationOptionRepository,
+                                 GoalTypeRepository goalTypeRepository,
+                                 RoleRepository roleRepository,
+                                 RotationSystemRepository rotationSystemRepository,
+                                 MemberStatusRepository memberStatusRepository,
+                                 TransactionStatusRepository transactionStatusRepository,
+                                 TransactionTypeRepository transactionTypeRepository) {
+        this.cubeStatusRepository = cubeStatusRepository;
+        this.durationOptionRepository = durationOptionRepository;
+        this.goalTypeRepository = goalTypeRepository;
+        this.roleRepository = roleRepository;
+        this.rotationSystemRepository = rotationSystemRepository;
+        this.memberStatusRepository = memberStatusRepository;
+        this.transactionStatusRepository = transactionStatusRepository;
+        this.transactionTypeRepository = transactionTypeRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${cube.reference-data.refresh-ms:600000}",
+               initialDelayString = "${cube.reference-data.refresh-ms:600000}")
+    public void scheduledRefresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("❌ Failed to refresh reference data, keeping previous copy: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load every lookup table and swap in the new snapshot.
+     */
+    public synchronized void reload() {
+        lastLoadedAt = System.currentTimeMillis();
+        Snapshot loaded = new Snapshot(
+                index(durationOptionRepository.findAll(), DurationOption::getDurationId,
+                        d -> new Duration(d.getDurationId(), d.getDurationName(), d.getDurationDays())),
+                index(goalTypeRepository.findAll(), GoalType::getGoalTypeId,
+                        g -> new Goal(g.getGoalTypeId(), g.getGoalTypeName())),
+                index(cubeStatusRepository.findAll(), CubeStatus::getStatusId, CubeStatus::getStatusName),
+                index(roleRepository.findAll(), Role::getId, Role::getName),
+                index(rotationSystemRepository.findAll(), RotationSystem::getRotationId, RotationSystem::getRotationName),
+                index(memberStatusRepository.findAll(), MemberStatus::getStatusId, MemberStatus::getStatusName),
+                index(transactionStatusRepository.findAll(), TransactionStatus::getStatusId, TransactionStatus::getStatusName),
+                index(transactionTypeRepository.findAll(), TransactionType::getTypeId, TransactionType::getTypeName)
+        );
+
+        checkCovered("cube_status", loaded.cubeStatuses(), CubeStatusId.values());
+        checkCovered("roles", loaded.roles(), RoleId.values());
+        checkCovered("rotation_system", loaded.rotationSystems(), RotationSystemId.values());
+        checkCovered("member_status", loaded.memberStatuses(), MemberStatusId.values());
+        checkCovered("transaction_status", loaded.transactionStatuses(), TransactionStatusId.values());
+        checkCovered("transaction_type", loaded.transactionTypes(), TransactionTypeId.values());
+
+        snapshot = loaded;
+    }
+
+    // Threads that queued behind a miss-triggered reload see the fresh timestamp and skip theirs
+    private synchronized void reloadIfStale() {
+        if (System.currentTimeMillis() - lastLoadedAt < minReloadIntervalMs) {
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("❌ Failed to reload reference data on a missing ID, keeping previous copy: " + e.getMessage());
+        }
+    }
+
+    public Optional<Duration> duration(Integer durationId) {
+        return lookup(durationId, Snapshot::durations);
+    }
+
+    public Optional<Goal> goalType(Integer goalTypeId) {
+        return lookup(goalTypeId, Snapshot::goalTypes);
+    }
+
+    public String cubeStatusName(Integer statusId) {
+        return lookup(statusId, Snapshot::cubeStatuses).orElse(null);
+    }
+
+    public String roleName(Integer roleId) {
+        return lookup(roleId, Snapshot::roles).orElse(null);
+    }
+
+    public String memberStatusName(Integer statusId) {
+        return lookup(statusId, Snapshot::memberStatuses).orElse(null);
+    }
+
+    public String transactionStatusName(Integer statusId) {
+        return lookup(statusId, Snapshot::transactionStatuses).orElse(null);
+    }
+
+    public String transactionTypeName(Integer typeId) {
+        return lookup(typeId, Snapshot::transactionTypes).orElse(null);
+    }
+
+    private <V> Optional<V> lookup(Integer id, Function<Snapshot, Map<Integer, V>> table) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        V value = table.apply(snapshot).get(id);
+        if (value == null && System.currentTimeMillis() - lastLoadedAt >= minReloadIntervalMs) {
+            // Possibly a row added since the last load
+            reloadIfStale();
+            value = table.apply(snapshot).get(id);
+        }
+        return Optional.ofNullable(value);
+    }
+
+    private static <T, V> Map<Integer, V> index(List<T> rows, Function<T, Integer> id, Function<T, V> value) {
+        return rows.stream().collect(Collectors.toUnmodifiableMap(id, value));
+    }
+
+    private static void checkCovered(String table, Map<Integer, String> rows, ReferenceId[] expected) {
+        Arrays.stream(expected)
+                .filter(ref -> !rows.containsKey(ref.id()))
+                .forEach(ref -> System.err.println("⚠️ " + table + " has no row with id " + ref.id() + " (" + ref + ")"));
+    }
+
+    public record Duration(int id, String name, int days) {
+    }
+
+    public record Goal(int id, String name) {
+    }
+
+    private record Snapshot(Map<Integer, Duration> durations,
+                            Map<Integer, Goal> goalTypes,
+                            Map<Integer, String> cubeStatuses,
+                            Map<Integer, String> roles,
+                            Map<Integer, String> rotationSystems,
+                            Map<Integer, String> memberStatuses,
+                            Map<Integer, String> transactionStatuses,
+                            Map<Integer, String> transactionTypes) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), Map.of(),
+                Map.of(), Map.of(), Map.of(), Map.of());
+    }
+}
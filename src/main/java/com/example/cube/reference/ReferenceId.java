@@ -0,0 +1,25 @@
+package com.example.cube.reference;
+
+/**
+ * An enum constant standing for one row of a lookup table, identified by its primary key.
+ */
+public interface ReferenceId {
+
+    int id();
+
+    /**
+     * Null-safe comparison against an ID column value.
+     */
+    default boolean is(Integer value) {
+        return value != null && value == id();
+    }
+
+    static <E extends Enum<E> & ReferenceId> E fromId(Class<E> type, int id) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.id() == id) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " id: " + id);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cube.reference;
+
+/**
+ * Rows of the roles table that the code relies on.
+ */
+public enum RoleId implements ReferenceId {
+    ADMIN(1),
+    MEMBER(2);
+
+    private final int id;
+
+    RoleId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public static RoleId fromId(int id) {
+        return ReferenceId.fromId(RoleId.class, id);
+    }
+}
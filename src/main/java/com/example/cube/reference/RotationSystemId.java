@@ -0,0 +1,23 @@
+package com.example.cube.reference;
+
+/**
+ * Rows of the rotation_system table that the code relies on.
+ */
+public enum RotationSystemId implements ReferenceId {
+    RANDOM(1);
+
+    private final int id;
+
+    RotationSystemId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public static RotationSystemId fromId(int id) {
+        return ReferenceId.fromId(RotationSystemId.class, id);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.cube.reference;
+
+/**
+ * Rows of the transaction_status table that the code relies on.
+ */
+public enum TransactionStatusId implements ReferenceId {
+    PENDING(1),
+    COMPLETED(2),
+    FAILED(3);
+
+    private final int id;
+
+    TransactionStatusId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public static TransactionStatusId fromId(int id) {
+        return ReferenceId.fromId(TransactionStatusId.class, id);
+    }
+}
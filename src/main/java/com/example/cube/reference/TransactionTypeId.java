@@ -0,0 +1,24 @@
+package com.example.cube.reference;
+
+/**
+ * Rows of the transaction_type table that the code relies on.
+ */
+public enum TransactionTypeId implements ReferenceId {
+    PAYMENT(1),
+    PAYOUT(2);
+
+    private final int id;
+
+    TransactionTypeId(int id) {
+        this.id = id;
+    }
+
+    @Override
+    public int id() {
+        return id;
+    }
+
+    public static TransactionTypeId fromId(int id) {
+        return ReferenceId.fromId(TransactionTypeId.class, id);
+    }
+}
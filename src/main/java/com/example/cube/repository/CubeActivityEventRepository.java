@@ -0,0 +1,52 @@
+package com.example.cube.repository;
+
+import com.example.cube.model.CubeActivityEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads pages of the activity log, newest first.
+ * Both queries are keyset paginated on (occurred_at, event_id): only events strictly
+ * older than the cursor are returned, each page is one range scan of the matching index
+ * (see db/cube_activity_events.sql).
+ */
+@Repository
+public interface CubeActivityEventRepository extends JpaRepository<CubeActivityEvent, UUID> {
+
+    /**
+     * Cube feed: payments, winners and member joins
+     */
+    @Query(value = """
+    SELECT * FROM cube_activity_events
+    WHERE cube_id = :cubeId
+      AND activity_type <> 'CUBE_CREATED'
+      AND (occurred_at, event_id) < (:beforeTs, :beforeId)
+    ORDER BY occurred_at DESC, event_id DESC
+    LIMIT :limit
+    """, nativeQuery = true)
+    List<CubeActivityEvent> findCubePage(@Param("cubeId") UUID cubeId,
+                                         @Param("beforeTs") LocalDateTime beforeTs,
+                                         @Param("beforeId") UUID beforeId,
+                                         @Param("limit") int limit);
+
+    /**
+     * User feed: everything the user did across all of their cubes
+     */
+    @Query(value = """
+    SELECT * FROM cube_activity_events
+    WHERE user_id = :userId
+      AND (occurred_at, event_id) < (:beforeTs, :beforeId)
+    ORDER BY occurred_at DESC, event_id DESC
+    LIMIT :limit
+    """, nativeQuery = true)
+    List<CubeActivityEvent> findUserPage(@Param("userId") UUID userId,
+                                         @Param("beforeTs") LocalDateTime beforeTs,
+                                         @Param("beforeId") UUID beforeId,
+                                         @Param("limit") int limit);
+}
@@ -1,8 +1,10 @@
 package com.example.cube.repository;
 
+import com.example.cube.dto.MemberInfoRow;
 import com.example.cube.dto.MemberWithContact;
 import com.example.cube.model.CubeMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -40,17 +42,27 @@ public interface CubeMemberRepository extends JpaRepository<CubeMember, UUID> {
     WHERE cube_id = :cubeId
     """, nativeQuery = true)
     List<MemberWithContact> findMembersWithContactInfo(@Param("cubeId") UUID cubeId);
-    
+
     /**
-     * Get recent members who joined a cube, ordered by most recent first
-     * Used for activity feed
+     * Get the members screen rows (membership + names) in one query, without loading entities
      */
-    List<CubeMember> findTop20ByCubeIdOrderByJoinedAtDesc(UUID cubeId);
-    
+    @Query("""
+    SELECT m.memberId AS memberId, m.userId AS userId, m.roleId AS roleId, m.statusId AS statusId,
+           m.joinedAt AS joinedAt, m.payoutPosition AS payoutPosition,
+           m.hasReceivedPayout AS hasReceivedPayout,
+           u.firstName AS firstName, u.lastName AS lastName
+    FROM CubeMember m
+    LEFT JOIN UserDetails u ON u.user_id = m.userId
+    WHERE m.cubeId = :cubeId
+    ORDER BY m.joinedAt, m.memberId
+    """)
+    List<MemberInfoRow> findMemberInfoRows(@Param("cubeId") UUID cubeId);
+
     /**
-     * Get recent cubes joined by user, ordered by most recent first
-     * Used for user activity feed
+     * Set every member of the cube to the given payment status in one statement.
+     * Bypasses the persistence context and entity listeners.
      */
-    List<CubeMember> findTop20ByUserIdOrderByJoinedAtDesc(UUID userId);
-
-}
\ No newline at end of file
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CubeMember m SET m.statusId = :statusId WHERE m.cubeId = :cubeId")
+    int updateStatusIdByCubeId(@Param("cubeId") UUID cubeId, @Param("statusId") Integer statusId);
+}
@@ -1,12 +1,19 @@
 package com.example.cube.repository;
 
+import com.example.cube.dto.CubeDueTime;
 import com.example.cube.model.Cube;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -23,13 +30,69 @@ import java.util.UUID;
 @Repository
 public interface CubeRepository extends JpaRepository<Cube, UUID> {
 
-    @Query("SELECT c FROM Cube c WHERE c.statusId = 2 AND c.nextPayoutDate <= :now")
-    List<Cube> findCubesReadyForProcessing(Instant now);
+    /**
+     * One page of active cubes due at or before {@code before}, ordered by (nextPayoutDate, cubeId)
+     * and starting after the given keyset cursor (statusId 2 = CubeStatusId.ACTIVE).
+     */
+    @Query("""
+    SELECT c.cubeId AS cubeId, c.nextPayoutDate AS nextPayoutDate
+    FROM Cube c
+    WHERE c.statusId = 2
+      AND c.nextPayoutDate <= :before
+      AND (c.nextPayoutDate > :afterDate OR (c.nextPayoutDate = :afterDate AND c.cubeId > :afterId))
+    ORDER BY c.nextPayoutDate, c.cubeId
+    """)
+    List<CubeDueTime> findActiveCubesDuePage(@Param("before") Instant before,
+                                             @Param("afterDate") Instant afterDate,
+                                             @Param("afterId") UUID afterId,
+                                             Limit limit);
+
+    /**
+     * Add to the cube's collected total in one UPDATE (no read-modify-write)
+     */
+    @Modifying
+    @Query("UPDATE Cube c SET c.totalAmountCollected = COALESCE(c.totalAmountCollected, 0) + :amount WHERE c.cubeId = :cubeId")
+    int incrementTotalAmountCollected(@Param("cubeId") UUID cubeId, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT c.name FROM Cube c WHERE c.cubeId = :cubeId")
+    Optional<String> findNameByCubeId(@Param("cubeId") UUID cubeId);
+
+    /**
+     * Claim a cube for cycle processing: SELECT ... FOR UPDATE SKIP LOCKED.
+     * Returns empty if another instance holds the row lock (lock timeout -2 = SKIP LOCKED);
+     * the lock is held until the calling transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM Cube c WHERE c.cubeId = :cubeId")
+    Optional<Cube> claimForCycleProcessing(@Param("cubeId") UUID cubeId);
 
-    boolean existsByInvitationCode(String invitationCode);
     Optional<Cube> findByInvitationCode(String invitationCode);
-    
-    // Find cubes created by user, ordered by creation date (limit 10)
-    @Query("SELECT c FROM Cube c WHERE c.user_id = :userId ORDER BY c.createdAt DESC")
-    List<Cube> findTop10ByUserIdOrderByCreatedAtDesc(@Param("userId") UUID userId, Pageable pageable);
+
+    // Invitation code allocation (see db/invitation_code_seq.sql)
+    @Query(value = "SELECT nextval('invitation_code_seq')", nativeQuery = true)
+    long nextInvitationCodeValue();
+
+    // Next value nextval() can return
+    @Query(value = "SELECT CASE WHEN is_called THEN last_value + 1 ELSE last_value END FROM invitation_code_seq", nativeQuery = true)
+    long lastInvitationCodeValue();
+
+    @Query("SELECT c.invitationCode FROM Cube c WHERE c.invitationCode IS NOT NULL")
+    List<String> findAllInvitationCodes();
+
+    /**
+     * Every cube the user belongs to, in one query, newest first.
+     * Each row is [Cube, CubeMember (the user's membership),
+     * Long paid member count (statusId 2 = MemberStatusId.PAID), Long total member count].
+     */
+    @Query("""
+    SELECT c, m,
+           (SELECT COUNT(p) FROM CubeMember p WHERE p.cubeId = c.cubeId AND p.statusId = 2),
+           (SELECT COUNT(a) FROM CubeMember a WHERE a.cubeId = c.cubeId)
+    FROM Cube c
+    JOIN CubeMember m ON m.cubeId = c.cubeId
+    WHERE m.userId = :userId
+    ORDER BY c.createdAt DESC
+    """)
+    List<Object[]> findCubeSummariesForUser(@Param("userId") UUID userId);
 }
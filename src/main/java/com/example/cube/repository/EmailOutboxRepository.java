@@ -0,0 +1,56 @@
+package com.example.cube.repository;
+
+import com.example.cube.model.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+
+    /**
+     * Queue an email; a row with the same dedup key (the same logical email) is left as is.
+     * Returns 1 if queued, 0 if it was a duplicate.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO email_outbox (message_id, dedup_key, recipient, subject, html, status, attempts, next_attempt_at, created_at)
+    VALUES (gen_random_uuid(), :dedupKey, :recipient, :subject, :html, 'PENDING', 0, now(), now())
+    ON CONFLICT (dedup_key) DO NOTHING
+    """, nativeQuery = true)
+    int enqueue(@Param("dedupKey") String dedupKey,
+                @Param("recipient") String recipient,
+                @Param("subject") String subject,
+                @Param("html") String html);
+
+    /**
+     * Lock up to {@code limit} pending messages that are due, skipping rows another
+     * dispatcher has locked. Must run in a transaction.
+     */
+    @Query(value = """
+    SELECT * FROM email_outbox
+    WHERE status = 'PENDING' AND next_attempt_at <= now()
+    ORDER BY next_attempt_at
+    LIMIT :limit
+    FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<EmailOutboxMessage> lockDueBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'SENT', m.sentAt = :sentAt, m.lastError = null WHERE m.messageId = :messageId")
+    int markSent(@Param("messageId") UUID messageId, @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.nextAttemptAt = :nextAttemptAt, m.lastError = :error WHERE m.messageId = :messageId")
+    int markRetry(@Param("messageId") UUID messageId, @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE EmailOutboxMessage m SET m.status = 'FAILED', m.lastError = :error WHERE m.messageId = :messageId")
+    int markFailed(@Param("messageId") UUID messageId, @Param("error") String error);
+}
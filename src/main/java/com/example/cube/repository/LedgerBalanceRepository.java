@@ -0,0 +1,103 @@
+package com.example.cube.repository;
+
+import com.example.cube.model.LedgerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Ledger balances are maintained with single-statement SQL increments, so concurrent
+ * writers never lose an update and reads are a primary key lookup.
+ * Type/status literals: type 1 = PAYMENT, 2 = PAYOUT; status 1 = PENDING, 2 = COMPLETED, 3 = FAILED.
+ */
+@Repository
+public interface LedgerBalanceRepository extends JpaRepository<LedgerBalance, LedgerBalance.Key> {
+
+    /**
+     * Add the deltas to the owner's row, creating it on first use
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO ledger_balances
+        (owner_type, owner_id, contributed, paid_out, pending, failed, transaction_count, updated_at)
+    VALUES (:ownerType, :ownerId, :contributed, :paidOut, :pending, :failed, :transactionCount, now())
+    ON CONFLICT (owner_type, owner_id) DO UPDATE SET
+        contributed       = ledger_balances.contributed + EXCLUDED.contributed,
+        paid_out          = ledger_balances.paid_out + EXCLUDED.paid_out,
+        pending           = ledger_balances.pending + EXCLUDED.pending,
+        failed            = ledger_balances.failed + EXCLUDED.failed,
+        transaction_count = ledger_balances.transaction_count + EXCLUDED.transaction_count,
+        updated_at        = now()
+    """, nativeQuery = true)
+    void increment(@Param("ownerType") String ownerType,
+                   @Param("ownerId") UUID ownerId,
+                   @Param("contributed") BigDecimal contributed,
+                   @Param("paidOut") BigDecimal paidOut,
+                   @Param("pending") BigDecimal pending,
+                   @Param("failed") BigDecimal failed,
+                   @Param("transactionCount") long transactionCount);
+
+    /**
+     * Number of ledger rows that differ from a fresh aggregate over transactions
+     * (including owners missing on either side)
+     */
+    @Query(value = """
+    WITH expected AS (
+        SELECT owner_type, owner_id,
+               COALESCE(SUM(amount) FILTER (WHERE type_id = 1 AND status_id = 2), 0) AS contributed,
+               COALESCE(SUM(amount) FILTER (WHERE type_id = 2 AND status_id = 2), 0) AS paid_out,
+               COALESCE(SUM(amount) FILTER (WHERE status_id = 1), 0) AS pending,
+               COALESCE(SUM(amount) FILTER (WHERE status_id = 3), 0) AS failed,
+               COUNT(*) AS transaction_count
+        FROM transactions t
+        CROSS JOIN LATERAL (VALUES ('USER', t.user_id), ('CUBE', t.cube_id)) AS o(owner_type, owner_id)
+        GROUP BY owner_type, owner_id
+    )
+    SELECT COUNT(*)
+    FROM expected e
+    FULL OUTER JOIN ledger_balances b
+      ON b.owner_type = e.owner_type AND b.owner_id = e.owner_id
+    WHERE e.owner_id IS NULL OR b.owner_id IS NULL
+       OR (e.contributed, e.paid_out, e.pending, e.failed, e.transaction_count)
+          IS DISTINCT FROM (b.contributed, b.paid_out, b.pending, b.failed, b.transaction_count)
+    """, nativeQuery = true)
+    long countMismatches();
+
+    /**
+     * Block concurrent increments until the rebuild transaction ends (reads stay allowed).
+     * Without it, a first-time upsert committed between deleteAllBalances and
+     * insertFromTransactions makes the insert fail with a unique violation.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE ledger_balances IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM ledger_balances", nativeQuery = true)
+    int deleteAllBalances();
+
+    /**
+     * Recompute every row from transactions (run after lockForRebuild and deleteAllBalances, in the same transaction)
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO ledger_balances
+        (owner_type, owner_id, contributed, paid_out, pending, failed, transaction_count, updated_at)
+    SELECT owner_type, owner_id,
+           COALESCE(SUM(amount) FILTER (WHERE type_id = 1 AND status_id = 2), 0),
+           COALESCE(SUM(amount) FILTER (WHERE type_id = 2 AND status_id = 2), 0),
+           COALESCE(SUM(amount) FILTER (WHERE status_id = 1), 0),
+           COALESCE(SUM(amount) FILTER (WHERE status_id = 3), 0),
+           COUNT(*),
+           now()
+    FROM transactions t
+    CROSS JOIN LATERAL (VALUES ('USER', t.user_id), ('CUBE', t.cube_id)) AS o(owner_type, owner_id)
+    GROUP BY owner_type, owner_id
+    """, nativeQuery = true)
+    int insertFromTransactions();
+}
@@ -1,11 +1,20 @@
 package com.example.cube.repository;
 
+import com.example.cube.dto.TransactionExportRow;
+import com.example.cube.dto.TransactionHistoryRow;
 import com.example.cube.model.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentTransactionRepository extends JpaRepository<Transaction, UUID> {
@@ -42,20 +51,53 @@ public interface PaymentTransactionRepository extends JpaRepository<Transaction,
     boolean existsByStripePaymentIntentId(String stripePaymentIntentId);
 
     /**
-     * Get all transactions for a user, ordered by most recent first
-     * Used for transaction history page
+     * One page of a user's transactions, most recent first, with cube name and currency.
+     * Keyset paginated on (created_at, payment_id): only rows strictly older than the
+     * cursor are returned (see db/transactions_history.sql for the index).
      */
-    List<Transaction> findByUserIdOrderByCreatedAtDesc(UUID userId);
-    
-    /**
-     * Get recent transactions for a cube, limited to top N
-     * Used for activity feed
-     */
-    List<Transaction> findTop20ByCubeIdOrderByCreatedAtDesc(UUID cubeId);
-    
+    @Query(value = """
+    SELECT t.payment_id AS paymentId, t.user_id AS userId, t.cube_id AS cubeId,
+           t.type_id AS typeId, t.status_id AS statusId, t.amount AS amount,
+           t.cycle_number AS cycleNumber, t.created_at AS createdAt, t.processed_at AS processedAt,
+           t.stripe_payment_intent_id AS stripePaymentIntentId,
+           t.stripe_transfer_id AS stripeTransferId, t.failure_reason AS failureReason,
+           c.name AS cubeName, c.currency AS currency
+    FROM transactions t
+    LEFT JOIN cubes c ON c.cube_id = t.cube_id
+    WHERE t.user_id = :userId
+      AND (t.created_at, t.payment_id) < (:beforeTs, :beforeId)
+    ORDER BY t.created_at DESC, t.payment_id DESC
+    LIMIT :limit
+    """, nativeQuery = true)
+    List<TransactionHistoryRow> findUserHistoryPage(@Param("userId") UUID userId,
+                                                    @Param("beforeTs") LocalDateTime beforeTs,
+                                                    @Param("beforeId") UUID beforeId,
+                                                    @Param("limit") int limit);
+
     /**
-     * Get recent transactions for a user, limited to top 20
-     * Used for user activity feed
+     * Transactions for export, oldest first; every filter is optional (null = any).
+     * Rows are fetched from a server-side cursor in batches of the fetch size, so the
+     * caller must consume the stream inside a read-only transaction and close it.
      */
-    List<Transaction> findTop20ByUserIdOrderByCreatedAtDesc(UUID userId);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+    SELECT t.paymentId AS paymentId, t.userId AS userId, t.memberId AS memberId, t.cubeId AS cubeId,
+           t.typeId AS typeId, t.statusId AS statusId, t.amount AS amount, t.cycleNumber AS cycleNumber,
+           t.createdAt AS createdAt, t.processedAt AS processedAt,
+           t.stripePaymentIntentId AS stripePaymentIntentId, t.stripeTransferId AS stripeTransferId,
+           t.failureReason AS failureReason
+    FROM Transaction t
+    WHERE (:cubeId IS NULL OR t.cubeId = :cubeId)
+      AND (:userId IS NULL OR t.userId = :userId)
+      AND (:fromTs IS NULL OR t.createdAt >= :fromTs)
+      AND (:toTs IS NULL OR t.createdAt < :toTs)
+    ORDER BY t.createdAt, t.paymentId
+    """)
+    Stream<TransactionExportRow> streamForExport(@Param("cubeId") UUID cubeId,
+                                                 @Param("userId") UUID userId,
+                                                 @Param("fromTs") LocalDateTime fromTs,
+                                                 @Param("toTs") LocalDateTime toTs);
 }
\ No newline at end of file
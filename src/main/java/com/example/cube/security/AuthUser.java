@@ -0,0 +1,21 @@
+package com.example.cube.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a controller parameter to the authenticated user's ID.
+ * The ID is resolved once per request by {@link JwtAuthFilter}.
+ *
+ * <pre>
+ * public ResponseEntity&lt;?&gt; endpoint(@AuthUser UUID userId) { ... }
+ * </pre>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AuthUser {
+}
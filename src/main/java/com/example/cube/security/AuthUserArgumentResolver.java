@@ -0,0 +1,46 @@
+package com.example.cube.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.UUID;
+
+/**
+ * Resolves {@link AuthUser} parameters from the principal stored by {@link JwtAuthFilter}.
+ * Falls back to validating the Authorization header for paths the filter skips.
+ */
+@Component
+public class AuthUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthenticationService authenticationService;
+
+    public AuthUserArgumentResolver(AuthenticationService authenticationService) {
+        this.authenticationService = authenticationService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(AuthUser.class)
+                && UUID.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+
+        Object userId = request.getAttribute(JwtAuthFilter.USER_ID_ATTRIBUTE);
+        if (userId instanceof UUID id) {
+            return id;
+        }
+
+        UUID resolved = authenticationService.validateAndExtractUserId(request.getHeader("Authorization"));
+        request.setAttribute(JwtAuthFilter.USER_ID_ATTRIBUTE, resolved);
+        return resolved;
+    }
+}
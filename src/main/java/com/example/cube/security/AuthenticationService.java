@@ -1,10 +1,10 @@
 package com.example.cube.security;
 
 import com.example.cube.exception.UnauthorizedException;
-import com.example.cube.repository.UserDetailsRepository;
+import com.example.cube.model.UserDetails;
 import com.example.cube.service.UserDetailsSyncService;
 import com.example.cube.service.supabass.TokenValidator;
-import com.nimbusds.jwt.SignedJWT;
+import com.example.cube.service.supabass.VerifiedToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,16 +14,16 @@ import java.util.UUID;
 public class AuthenticationService {
 
     private final TokenValidator tokenValidator;
-    private final UserDetailsRepository userRepository;
     private final UserDetailsSyncService userDetailsSyncService;
+    private final KnownUserCache knownUserCache;
 
     @Autowired
     public AuthenticationService(TokenValidator tokenValidator,
-                                 UserDetailsRepository userRepository,
-                                 UserDetailsSyncService userDetailsSyncService) {
+                                 UserDetailsSyncService userDetailsSyncService,
+                                 KnownUserCache knownUserCache) {
         this.tokenValidator = tokenValidator;
-        this.userRepository = userRepository;
         this.userDetailsSyncService = userDetailsSyncService;
+        this.knownUserCache = knownUserCache;
     }
 
     public UUID validateAndExtractUserId(String authHeader) {
@@ -34,28 +34,32 @@ public class AuthenticationService {
 
         String token = authHeader.substring(7);
 
-        if (!tokenValidator.validateToken(token)) {
+        VerifiedToken verified = tokenValidator.verify(token);
+        if (verified == null) {
             throw new UnauthorizedException("Invalid or expired token");
         }
 
-        UUID userId = extractUserIdFromToken(token);
+        UUID userId = extractUserIdFromToken(verified);
 
-        // Ensure we have a local user_details record (handles Google/Apple sign-ins).
-        userDetailsSyncService.ensureUserDetails(userId);
+        // Users with a confirmed profile skip the user_details lookups entirely
+        if (knownUserCache.isKnown(userId)) {
+            return userId;
+        }
 
-        // Verify user actually exists in db
-        if (!userRepository.existsById(userId)) {
+        // Ensure we have a local user_details record (handles Google/Apple sign-ins).
+        // The returned entity is the persisted row, so no separate existence check is needed.
+        UserDetails details = userDetailsSyncService.ensureUserDetails(userId);
+        if (details == null) {
             throw new UnauthorizedException("User not found");
         }
 
+        knownUserCache.markKnown(userId);
         return userId;
     }
 
-    private UUID extractUserIdFromToken(String token) {
+    private UUID extractUserIdFromToken(VerifiedToken token) {
         try {
-            SignedJWT jwt = SignedJWT.parse(token);
-            String userId = jwt.getJWTClaimsSet().getSubject();
-            return UUID.fromString(userId);
+            return UUID.fromString(token.subject());
         } catch (Exception e) {
             throw new UnauthorizedException("Failed to extract user ID from token: " + e.getMessage());
         }
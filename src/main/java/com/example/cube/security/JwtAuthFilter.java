@@ -1,6 +1,6 @@
 package com.example.cube.security;
 
-import com.example.cube.service.supabass.TokenValidator;
+import com.example.cube.exception.UnauthorizedException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,12 +9,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.UUID;
 
+/**
+ * Authenticates every API request once and stores the user ID as a request attribute,
+ * which controllers receive through {@link AuthUser} parameters.
+ */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    public static final String USER_ID_ATTRIBUTE = JwtAuthFilter.class.getName() + ".userId";
+
     @Autowired
-    private TokenValidator tokenValidator;
+    private AuthenticationService authenticationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -27,12 +34,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        String token = authHeader.substring(7);
-        if (!tokenValidator.validateToken(token)) {
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
+        UUID userId;
+        try {
+            userId = authenticationService.validateAndExtractUserId(authHeader);
+        } catch (UnauthorizedException e) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
             return;
         }
 
+        request.setAttribute(USER_ID_ATTRIBUTE, userId);
         filterChain.doFilter(request, response);
     }
 
@@ -40,9 +50,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getServletPath();
         return path.startsWith("/api/auth/")
-                || path.startsWith("/api/cubes/")
-                || path.startsWith("/api/payments/")
-                || path.startsWith("/api/stripe/webhook");
-    };
+                || path.startsWith("/api/stripe/webhook")
+                // Load balancer probes and metrics scraping carry no user JWT
+                || path.equals("/actuator/health")
+                || path.startsWith("/actuator/health/")
+                || path.equals("/actuator/metrics")
+                || path.startsWith("/actuator/metrics/");
+    }
 
 }
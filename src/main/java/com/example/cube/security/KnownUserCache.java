@@ -0,0 +1,55 @@
+package com.example.cube.security;
+
+import com.example.cube.cache.ExpiringCache;
+import com.example.cube.event.UserDetailsChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Remembers users already confirmed to have a complete user_details record,
+ * so authentication can skip the user_details lookups for them.
+ * Entries are dropped when the user's row changes or after the configured TTL.
+ */
+@Component
+public class KnownUserCache {
+
+    private final ExpiringCache<UUID, Boolean> knownUsers;
+    private final Duration ttl;
+
+    public KnownUserCache(@Value("${cube.auth.known-users.max-entries:50000}") int maxEntries,
+                          @Value("${cube.auth.known-users.ttl-seconds:600}") long ttlSeconds) {
+        this.knownUsers = new ExpiringCache<>(maxEntries);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public boolean isKnown(UUID userId) {
+        return knownUsers.get(userId) != null;
+    }
+
+    public void markKnown(UUID userId) {
+        knownUsers.put(userId, Boolean.TRUE, ttl);
+    }
+
+    @EventListener
+    public void onUserDetailsChanged(UserDetailsChangedEvent event) {
+        knownUsers.invalidate(event.userId());
+    }
+
+    // A login between the write and its commit can re-mark the user from the old row; drop it again at completion
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onUserDetailsChangeCompleted(UserDetailsChangedEvent event) {
+        knownUsers.invalidate(event.userId());
+    }
+
+    public long getHits() { return knownUsers.hitCount(); }
+
+    public long getMisses() { return knownUsers.missCount(); }
+
+    public int getSize() { return knownUsers.size(); }
+}
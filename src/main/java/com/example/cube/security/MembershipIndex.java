@@ -0,0 +1,118 @@
+package com.example.cube.security;
+
+import com.example.cube.cache.ExpiringCache;
+import com.example.cube.event.CubeMembershipChangedEvent;
+import com.example.cube.model.CubeMember;
+import com.example.cube.reference.RoleId;
+import com.example.cube.repository.CubeMemberRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cached view of each user's cube memberships (cube ID -> role, payment status, payout state),
+ * used to gate cube-scoped endpoints without a cube_members query per request.
+ *
+ * A user's memberships are loaded with one query and kept until the TTL expires or any of
+ * their cube_members rows is written. Invalidation happens immediately and again after the
+ * writing transaction commits, so a concurrent reload cannot keep the pre-commit state.
+ */
+@Component
+public class MembershipIndex {
+
+    private final CubeMemberRepository cubeMemberRepository;
+    private final ExpiringCache<UUID, Map<UUID, Membership>> memberships;
+    private final Duration ttl;
+
+    public MembershipIndex(CubeMemberRepository cubeMemberRepository,
+                           @Value("${cube.auth.memberships.max-entries:20000}") int maxEntries,
+                           @Value("${cube.auth.memberships.ttl-seconds:300}") long ttlSeconds) {
+        this.cubeMemberRepository = cubeMemberRepository;
+        this.memberships = new ExpiringCache<>(maxEntries);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * All of the user's memberships, keyed by cube ID.
+     */
+    public Map<UUID, Membership> memberships(UUID userId) {
+        Map<UUID, Membership> cached = memberships.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        Map<UUID, Membership> loaded = new LinkedHashMap<>();
+        for (CubeMember member : cubeMemberRepository.findByUserId(userId)) {
+            loaded.put(member.getCubeId(), Membership.of(member));
+        }
+        Map<UUID, Membership> snapshot = Map.copyOf(loaded);
+        memberships.put(userId, snapshot, ttl);
+        return snapshot;
+    }
+
+    public Optional<Membership> membership(UUID cubeId, UUID userId) {
+        return Optional.ofNullable(memberships(userId).get(cubeId));
+    }
+
+    public Set<UUID> cubeIds(UUID userId) {
+        return memberships(userId).keySet();
+    }
+
+    public boolean isMember(UUID cubeId, UUID userId) {
+        return memberships(userId).containsKey(cubeId);
+    }
+
+    public boolean isAdmin(UUID cubeId, UUID userId) {
+        Membership membership = memberships(userId).get(cubeId);
+        return membership != null && RoleId.ADMIN.is(membership.roleId());
+    }
+
+    /**
+     * Throws unless the user belongs to the cube.
+     */
+    public Membership requireMember(UUID cubeId, UUID userId) {
+        return membership(cubeId, userId)
+                .orElseThrow(() -> new RuntimeException("You are not a member of this cube"));
+    }
+
+    public void invalidate(UUID userId) {
+        memberships.invalidate(userId);
+    }
+
+    @EventListener
+    public void onMembershipChanged(CubeMembershipChangedEvent event) {
+        UUID userId = event.userId();
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public long getHits() { return memberships.hitCount(); }
+
+    public long getMisses() { return memberships.missCount(); }
+
+    public int getSize() { return memberships.size(); }
+
+    public record Membership(UUID memberId, UUID cubeId, Integer roleId, Integer statusId,
+                             Integer payoutPosition, Boolean hasReceivedPayout) {
+
+        static Membership of(CubeMember member) {
+            return new Membership(member.getMemberId(), member.getCubeId(), member.getRoleId(),
+                    member.getStatusId(), member.getPayoutPosition(), member.getHasReceivedPayout());
+        }
+    }
+}
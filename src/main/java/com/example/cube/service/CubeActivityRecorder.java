@@ -0,0 +1,79 @@
+package com.example.cube.service;
+
+import com.example.cube.model.Cube;
+import com.example.cube.model.CubeActivityEvent;
+import com.example.cube.model.CubeMember;
+import com.example.cube.model.CycleWinner;
+import com.example.cube.model.Transaction;
+import com.example.cube.repository.CubeActivityEventRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Appends events to the cube activity log.
+ *
+ * Called from inside the transaction that writes the underlying row, so the
+ * event is committed (or rolled back) together with it. The user's display name is
+ * copied in unless it is still the placeholder of a pending profile sync.
+ */
+@Service
+public class CubeActivityRecorder {
+
+    private final CubeActivityEventRepository activityEventRepository;
+    private final UserDirectory userDirectory;
+
+    public CubeActivityRecorder(CubeActivityEventRepository activityEventRepository,
+                                UserDirectory userDirectory) {
+        this.activityEventRepository = activityEventRepository;
+        this.userDirectory = userDirectory;
+    }
+
+    public void cubeCreated(Cube cube) {
+        CubeActivityEvent event = newEvent(cube, cube.getUser_id(), CubeActivityEvent.CUBE_CREATED, cube.getCubeId());
+        if (cube.getCreatedAt() != null) {
+            event.setOccurredAt(LocalDateTime.ofInstant(cube.getCreatedAt(), ZoneId.systemDefault()));
+        }
+        activityEventRepository.save(event);
+    }
+
+    public void memberJoined(Cube cube, CubeMember member) {
+        CubeActivityEvent event = newEvent(cube, member.getUserId(), CubeActivityEvent.MEMBER_JOIN, member.getMemberId());
+        event.setOccurredAt(member.getJoinedAt());
+        activityEventRepository.save(event);
+    }
+
+    public void paymentRecorded(Cube cube, Transaction payment) {
+        CubeActivityEvent event = newEvent(cube, payment.getUserId(), CubeActivityEvent.PAYMENT, payment.getPaymentId());
+        event.setAmount(payment.getAmount());
+        event.setCycleNumber(payment.getCycleNumber());
+        event.setOccurredAt(payment.getCreatedAt());
+        activityEventRepository.save(event);
+    }
+
+    public void winnerSelected(Cube cube, CycleWinner winner) {
+        CubeActivityEvent event = newEvent(cube, winner.getUserId(), CubeActivityEvent.WINNER, winner.getWinnerId());
+        event.setAmount(winner.getPayoutAmount());
+        event.setCycleNumber(winner.getCycleNumber());
+        event.setOccurredAt(winner.getSelectedAt());
+        activityEventRepository.save(event);
+    }
+
+    private CubeActivityEvent newEvent(Cube cube, UUID userId, String type, UUID sourceId) {
+        CubeActivityEvent event = new CubeActivityEvent();
+        event.setCubeId(cube.getCubeId());
+        event.setCubeName(cube.getName());
+        event.setUserId(userId);
+        UserDirectory.Names names = userDirectory.resolve(List.of(userId)).get(userId);
+        // Placeholder names (profile sync still pending) are not copied; the feed resolves them when read
+        if (names != null && !UserDetailsSyncService.isPlaceholderName(names.firstName(), names.lastName())) {
+            event.setUserName(names.displayName());
+        }
+        event.setActivityType(type);
+        event.setSourceId(sourceId);
+        return event;
+    }
+}
@@ -2,8 +2,10 @@ package com.example.cube.service;
 
 import com.example.cube.dto.request.CreateCubeRequest;
 import com.example.cube.dto.response.CubeActivityResponse;
+import com.example.cube.dto.response.CubeSummaryResponse;
 import com.example.cube.dto.response.WinnerResponse;
 import com.example.cube.model.Cube;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,16 +20,24 @@ public interface CubeService {
     // Get all cube IDs for a user
     List<UUID> getUserCubeIds(UUID userId);
 
+    /**
+     * Get every cube the user belongs to, with their membership and the cube's paid count,
+     * in a single query (home screen)
+     */
+    List<CubeSummaryResponse> getUserCubeSummaries(UUID userId);
+
     // Retrieve a single Cube by ID
     Cube getCubeById(UUID cubeId);
     
     /**
-     * Get recent activity for a cube (payments, winners, new members)
+     * Get activity for a cube (payments, winners, new members), one page at a time
      * @param cubeId Cube ID
+     * @param before Timestamp of the last activity on the previous page, or null for the first page
+     * @param beforeId activityId of the last activity on the previous page, or null for the first page
      * @param limit Maximum number of activities to return
      * @return List of activities sorted by most recent first
      */
-    List<CubeActivityResponse> getCubeActivity(UUID cubeId, int limit);
+    List<CubeActivityResponse> getCubeActivity(UUID cubeId, LocalDateTime before, UUID beforeId, int limit);
 
     /**
      * Get all previous winners for a cube
@@ -37,11 +47,13 @@ public interface CubeService {
     List<WinnerResponse> getPreviousWinners(UUID cubeId);
 
     /**
-     * Get recent activity for a user across all their cubes
+     * Get activity for a user across all their cubes, one page at a time
      * @param userId User ID
+     * @param before Timestamp of the last activity on the previous page, or null for the first page
+     * @param beforeId activityId of the last activity on the previous page, or null for the first page
      * @param limit Maximum number of activities to return
      * @return List of activities sorted by most recent first
      */
-    List<CubeActivityResponse> getUserActivity(UUID userId, int limit);
+    List<CubeActivityResponse> getUserActivity(UUID userId, LocalDateTime before, UUID beforeId, int limit);
 
 }
@@ -12,6 +12,8 @@ public interface CycleService {
     // Start a cube (transition from draft/pending to active)
     Cube startCube(UUID cubeId, UUID memberId, UUID userId);
 
-    // Process current cycle (collect payments, select winner, payout)
+    // Process current cycle (collect payments, select winner, payout).
+    // Safe to call from several instances at once: the cube row is claimed with SKIP LOCKED,
+    // and a cube that is locked elsewhere or no longer due is skipped.
     void processCycle(UUID cubeId);
 }
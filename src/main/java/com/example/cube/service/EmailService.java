@@ -6,17 +6,22 @@ import com.example.cube.model.CubeMember;
 import java.math.BigDecimal;
 import java.util.UUID;
 
+/**
+ * Emails are queued in the email outbox within the caller's transaction and sent
+ * after it commits, so none of these methods wait on the mail provider.
+ */
 public interface EmailService {
 
     /**
      * Send invitation email to the invitee
      *
+     * @param invitationId The invitation record the email is for (one email per invitation)
      * @param email The recipient's email address
      * @param invitationCode The cube's invitation code (6-character code)
      * @param cubeName The name of the cube they're being invited to
      * @param invitedBy The UUID of the user who sent the invitation
      */
-    void sendInvitationEmail(String email, String invitationCode, String cubeName, UUID invitedBy);
+    void sendInvitationEmail(UUID invitationId, String email, String invitationCode, String cubeName, UUID invitedBy);
 
     /**
      * Send winner notification emails to all cube members and admin
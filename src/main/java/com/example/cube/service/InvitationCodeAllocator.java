@@ -0,0 +1,192 @@
+package com.example.cube.service;
+
+import com.example.cube.cache.ExpiringCache;
+import com.example.cube.repository.CubeRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues 6-character invitation codes and resolves codes to cubes.
+ *
+ * Codes are drawn from the invitation_code_seq sequence (db/invitation_code_seq.sql) and
+ * passed through a keyed permutation of [0, 36^6), written in base 36. The permutation is an
+ * 8-round Feistel network over 32 bits with HMAC-SHA256 round functions, cycle-walked back into
+ * the code space, so codes can't be predicted from one another without the secret
+ * cube.invitation-code.key (required, no default). Distinct sequence values always give distinct
+ * codes, so allocation is one nextval() with no existence check and no check-then-insert race.
+ * Codes not produced by the current key (random legacy codes, or codes issued under an earlier
+ * key) are loaded once at startup and skipped.
+ *
+ * Code -> cubeId pairs are kept in a bounded cache so join-by-code can go straight to the
+ * cube by primary key.
+ */
+@Service
+public class InvitationCodeAllocator {
+
+    private static final String CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int CODE_LENGTH = 6;
+    private static final long KEYSPACE = 2_176_782_336L;  // 36^6
+    private static final int ROUNDS = 8;
+    private static final int MIN_KEY_LENGTH = 32;
+
+    private final CubeRepository cubeRepository;
+    private final SecretKeySpec key;
+    private final ExpiringCache<String, UUID> cubeIdsByCode;
+    private final Duration ttl;
+
+    // Legacy random codes that the sequence has not reached yet
+    private final Set<String> legacyCodes = ConcurrentHashMap.newKeySet();
+
+    public InvitationCodeAllocator(CubeRepository cubeRepository,
+                                   @Value("${cube.invitation-code.key}") String key,
+                                   @Value("${cube.invitation-code.cache.max-entries:20000}") int maxEntries,
+                                   @Value("${cube.invitation-code.cache.ttl-seconds:3600}") long ttlSeconds) {
+        if (key == null || key.length() < MIN_KEY_LENGTH) {
+            throw new IllegalArgumentException("cube.invitation-code.key must be a secret of at least "
+                    + MIN_KEY_LENGTH + " characters");
+        }
+        this.cubeRepository = cubeRepository;
+        this.key = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.cubeIdsByCode = new ExpiringCache<>(maxEntries);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Reserve existing codes the sequence could still produce. Fails startup if they can't be
+     * loaded: without them, new cubes could be handed codes that already belong to other cubes.
+     */
+    @PostConstruct
+    public void init() {
+        long issuedUpTo = cubeRepository.lastInvitationCodeValue();
+        List<String> existing = cubeRepository.findAllInvitationCodes();
+        for (String code : existing) {
+            long n = decode(code);
+            // Anything the sequence could still produce must be skipped when it comes up
+            if (n < 0 || n >= issuedUpTo) {
+                legacyCodes.add(code);
+            }
+        }
+        System.out.println("✅ Invitation codes: " + legacyCodes.size() + " legacy code(s) reserved");
+    }
+
+    /**
+     * Allocate a new, never-issued invitation code.
+     */
+    public String nextCode() {
+        while (true) {
+            String code = encode(cubeRepository.nextInvitationCodeValue());
+            // A legacy code collides with exactly one sequence value, so each is skipped at most once
+            if (!legacyCodes.remove(code)) {
+                return code;
+            }
+        }
+    }
+
+    /**
+     * Cube ID for the code if it is cached, otherwise null.
+     */
+    public UUID cachedCubeId(String code) {
+        return cubeIdsByCode.get(code);
+    }
+
+    public void remember(String code, UUID cubeId) {
+        if (code != null && cubeId != null) {
+            cubeIdsByCode.put(code, cubeId, ttl);
+        }
+    }
+
+    public void forget(String code) {
+        cubeIdsByCode.invalidate(code);
+    }
+
+    String encode(long sequenceValue) {
+        if (sequenceValue < 0 || sequenceValue >= KEYSPACE) {
+            throw new RuntimeException("Invitation code space exhausted");
+        }
+        // Cycle-walk: the permutation is over 32 bits, keep applying it until the value is a code
+        long scrambled = sequenceValue;
+        do {
+            scrambled = permute(scrambled);
+        } while (scrambled >= KEYSPACE);
+
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = CODE_CHARS.charAt((int) (scrambled % CODE_CHARS.length()));
+            scrambled /= CODE_CHARS.length();
+        }
+        return new String(code);
+    }
+
+    /**
+     * Sequence value that encodes to the code, or -1 if it is not a well-formed code.
+     */
+    long decode(String code) {
+        if (code == null || code.length() != CODE_LENGTH) {
+            return -1;
+        }
+        long scrambled = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            int digit = CODE_CHARS.indexOf(code.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            scrambled = scrambled * CODE_CHARS.length() + digit;
+        }
+        long value = scrambled;
+        do {
+            value = unpermute(value);
+        } while (value >= KEYSPACE);
+        return value;
+    }
+
+    // Feistel network on two 16-bit halves
+    private long permute(long value) {
+        Mac mac = newMac();
+        int left = (int) (value >>> 16) & 0xFFFF;
+        int right = (int) value & 0xFFFF;
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = left ^ round(mac, round, right);
+            left = right;
+            right = next;
+        }
+        return ((long) left << 16) | right;
+    }
+
+    private long unpermute(long value) {
+        Mac mac = newMac();
+        int left = (int) (value >>> 16) & 0xFFFF;
+        int right = (int) value & 0xFFFF;
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            int previous = right ^ round(mac, round, left);
+            right = left;
+            left = previous;
+        }
+        return ((long) left << 16) | right;
+    }
+
+    private static int round(Mac mac, int round, int half) {
+        byte[] digest = mac.doFinal(new byte[] {(byte) round, (byte) (half >>> 8), (byte) half});
+        return ((digest[0] & 0xFF) << 8) | (digest[1] & 0xFF);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
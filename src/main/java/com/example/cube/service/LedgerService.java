@@ -0,0 +1,84 @@
+package com.example.cube.service;
+
+import com.example.cube.model.LedgerBalance;
+import com.example.cube.model.Transaction;
+import com.example.cube.reference.TransactionStatusId;
+import com.example.cube.reference.TransactionTypeId;
+import com.example.cube.repository.LedgerBalanceRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps the per-user and per-cube ledger balances in step with the transactions table.
+ *
+ * {@link #transactionRecorded} must be called in the transaction that inserts the
+ * Transaction row, so the balances commit (or roll back) together with it.
+ */
+@Service
+public class LedgerService {
+
+    private final LedgerBalanceRepository ledgerBalanceRepository;
+
+    public LedgerService(LedgerBalanceRepository ledgerBalanceRepository) {
+        this.ledgerBalanceRepository = ledgerBalanceRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transactionRecorded(Transaction transaction) {
+        BigDecimal amount = transaction.getAmount() != null ? transaction.getAmount() : BigDecimal.ZERO;
+        BigDecimal contributed = BigDecimal.ZERO;
+        BigDecimal paidOut = BigDecimal.ZERO;
+        BigDecimal pending = BigDecimal.ZERO;
+        BigDecimal failed = BigDecimal.ZERO;
+
+        if (TransactionStatusId.PENDING.is(transaction.getStatusId())) {
+            pending = amount;
+        } else if (TransactionStatusId.FAILED.is(transaction.getStatusId())) {
+            failed = amount;
+        } else if (TransactionStatusId.COMPLETED.is(transaction.getStatusId())) {
+            if (TransactionTypeId.PAYMENT.is(transaction.getTypeId())) {
+                contributed = amount;
+            } else if (TransactionTypeId.PAYOUT.is(transaction.getTypeId())) {
+                paidOut = amount;
+            }
+        }
+
+        ledgerBalanceRepository.increment(LedgerBalance.USER, transaction.getUserId(),
+                contributed, paidOut, pending, failed, 1);
+        ledgerBalanceRepository.increment(LedgerBalance.CUBE, transaction.getCubeId(),
+                contributed, paidOut, pending, failed, 1);
+    }
+
+    public Optional<LedgerBalance> getUserBalance(UUID userId) {
+        return ledgerBalanceRepository.findById(new LedgerBalance.Key(LedgerBalance.USER, userId));
+    }
+
+    public Optional<LedgerBalance> getCubeBalance(UUID cubeId) {
+        return ledgerBalanceRepository.findById(new LedgerBalance.Key(LedgerBalance.CUBE, cubeId));
+    }
+
+    /**
+     * Compare the balances against a fresh aggregate over transactions and rebuild them.
+     */
+    @Transactional
+    public RebuildResult rebuild() {
+        // Payments wait for the rebuild instead of racing it; they apply their increment after it commits
+        ledgerBalanceRepository.lockForRebuild();
+        long mismatches = ledgerBalanceRepository.countMismatches();
+        ledgerBalanceRepository.deleteAllBalances();
+        int rows = ledgerBalanceRepository.insertFromTransactions();
+        return new RebuildResult(rows, mismatches);
+    }
+
+    /**
+     * @param rows       balance rows written by the rebuild
+     * @param mismatches rows that were out of step before the rebuild
+     */
+    public record RebuildResult(int rows, long mismatches) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.cube.service;
+
+import com.example.cube.cache.ExpiringCache;
+import com.example.cube.dto.TransactionExportRow;
+import com.example.cube.exception.UnauthorizedException;
+import com.example.cube.reference.TransactionStatusId;
+import com.example.cube.reference.TransactionTypeId;
+import com.example.cube.repository.CubeRepository;
+import com.example.cube.repository.PaymentTransactionRepository;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams transaction exports (CSV or NDJSON) straight from a database cursor.
+ *
+ * Rows are read in fetch-size batches and written out one by one, so memory stays
+ * flat regardless of how many transactions match. Cube names come from a bounded
+ * cache shared across exports.
+ */
+@Service
+public class TransactionExportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final String CSV_HEADER = "payment_id,user_id,member_id,cube_id,cube_name,type,status,amount,"
+            + "cycle_number,created_at,processed_at,stripe_payment_intent_id,stripe_transfer_id,failure_reason";
+
+    // Cached marker for "cube not found"
+    private static final String MISSING = "";
+
+    private final PaymentTransactionRepository transactionRepository;
+    private final CubeRepository cubeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExpiringCache<UUID, String> cubeNames;
+    private final Duration cubeNameTtl;
+    private final Set<UUID> financeUserIds;
+
+    public TransactionExportService(PaymentTransactionRepository transactionRepository,
+                                    CubeRepository cubeRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${cube.export.cube-name-cache.max-entries:5000}") int maxCubeNames,
+                                    @Value("${cube.export.cube-name-cache.ttl-seconds:600}") long cubeNameTtlSeconds,
+                                    @Value("${cube.finance.user-ids:}") String financeUserIds) {
+        this.transactionRepository = transactionRepository;
+        this.cubeRepository = cubeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cubeNames = new ExpiringCache<>(maxCubeNames);
+        this.cubeNameTtl = Duration.ofSeconds(cubeNameTtlSeconds);
+        this.financeUserIds = Arrays.stream(financeUserIds.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(UUID::fromString)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isFinanceUser(UUID userId) {
+        return financeUserIds.contains(userId);
+    }
+
+    /**
+     * Build the export body. Finance users may export any cube, user or date range;
+     * everyone else only gets their own transactions.
+     */
+    public StreamingResponseBody export(UUID requesterId, String format, UUID cubeId, UUID userId,
+                                        LocalDateTime from, LocalDateTime to) {
+        if (!CSV.equals(format) && !NDJSON.equals(format)) {
+            throw new RuntimeException("Unsupported export format: " + format + " (use csv or ndjson)");
+        }
+
+        UUID effectiveUserId = userId;
+        if (!isFinanceUser(requesterId)) {
+            if (userId != null && !userId.equals(requesterId)) {
+                throw new UnauthorizedException("Only finance users can export other users' transactions");
+            }
+            effectiveUserId = requesterId;
+        }
+
+        UUID filterUserId = effectiveUserId;
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+            // The body is written after the controller returns, so the cursor needs its own transaction
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<TransactionExportRow> rows =
+                             transactionRepository.streamForExport(cubeId, filterUserId, from, to)) {
+                    if (CSV.equals(format)) {
+                        writeLine(writer, CSV_HEADER);
+                        rows.forEach(row -> writeLine(writer, toCsv(row)));
+                    } else {
+                        rows.forEach(row -> writeLine(writer, toJson(row)));
+                    }
+                }
+            });
+
+            writer.flush();
+        };
+    }
+
+    private String toCsv(TransactionExportRow row) {
+        return String.join(",",
+                csv(row.getPaymentId()),
+                csv(row.getUserId()),
+                csv(row.getMemberId()),
+                csv(row.getCubeId()),
+                csv(cubeName(row.getCubeId())),
+                csv(typeName(row.getTypeId())),
+                csv(statusName(row.getStatusId())),
+                csv(row.getAmount() != null ? row.getAmount().toPlainString() : null),
+                csv(row.getCycleNumber()),
+                csv(row.getCreatedAt()),
+                csv(row.getProcessedAt()),
+                csv(row.getStripePaymentIntentId()),
+                csv(row.getStripeTransferId()),
+                csv(row.getFailureReason()));
+    }
+
+    private String toJson(TransactionExportRow row) {
+        JSONObject json = new JSONObject();
+        json.put("paymentId", row.getPaymentId());
+        json.put("userId", row.getUserId());
+        json.put("memberId", row.getMemberId());
+        json.put("cubeId", row.getCubeId());
+        json.put("cubeName", cubeName(row.getCubeId()));
+        json.put("type", typeName(row.getTypeId()));
+        json.put("status", statusName(row.getStatusId()));
+        json.put("amount", row.getAmount());
+        json.put("cycleNumber", row.getCycleNumber());
+        json.put("createdAt", row.getCreatedAt() != null ? row.getCreatedAt().toString() : null);
+        json.put("processedAt", row.getProcessedAt() != null ? row.getProcessedAt().toString() : null);
+        json.put("stripePaymentIntentId", row.getStripePaymentIntentId());
+        json.put("stripeTransferId", row.getStripeTransferId());
+        json.put("failureReason", row.getFailureReason());
+        return json.toString();
+    }
+
+    private String cubeName(UUID cubeId) {
+        if (cubeId == null) {
+            return null;
+        }
+        String name = cubeNames.get(cubeId);
+        if (name == null) {
+            name = cubeRepository.findNameByCubeId(cubeId).orElse(MISSING);
+            cubeNames.put(cubeId, name, cubeNameTtl);
+        }
+        return name != MISSING ? name : "Unknown Cube";
+    }
+
+    private static String typeName(Integer typeId) {
+        for (TransactionTypeId type : TransactionTypeId.values()) {
+            if (type.is(typeId)) {
+                return type.name();
+            }
+        }
+        return "UNKNOWN";
+    }
+
+    private static String statusName(Integer statusId) {
+        for (TransactionStatusId status : TransactionStatusId.values()) {
+            if (status.is(statusId)) {
+                return status.name();
+            }
+        }
+        return "UNKNOWN";
+    }
+
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private static void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            // Client went away; abort the cursor
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.cube.service;
 
 import com.example.cube.dto.response.TransactionHistoryResponse;
+
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -9,11 +11,14 @@ import java.util.UUID;
 public interface TransactionService {
 
     /**
-     * Get complete transaction history for a user
-     * Includes all payments made and payouts received
+     * Get one page of a user's transaction history, most recent first
+     * Includes payments made and payouts received; totals cover the whole history
      *
      * @param userId - User ID
-     * @return TransactionHistoryResponse with all user transactions and totals
+     * @param before - createdAt of the last transaction on the previous page (null for the first page)
+     * @param beforeId - paymentId of that transaction
+     * @param limit - page size (capped)
+     * @return TransactionHistoryResponse with the page, overall totals and the next-page cursor
      */
-    TransactionHistoryResponse getUserTransactionHistory(UUID userId);
+    TransactionHistoryResponse getUserTransactionHistory(UUID userId, LocalDateTime before, UUID beforeId, int limit);
 }
\ No newline at end of file
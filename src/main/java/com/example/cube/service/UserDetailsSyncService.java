@@ -1,17 +1,12 @@
 package com.example.cube.service;
 
+import com.example.cube.event.ProfileSyncRequestedEvent;
 import com.example.cube.model.UserDetails;
 import com.example.cube.repository.UserDetailsRepository;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -19,27 +14,34 @@ import java.util.UUID;
 /**
  * Ensures we always have a user_details record for any Supabase user,
  * regardless of how they authenticated (email/password, Google, Apple, etc.).
+ *
+ * New users get a placeholder profile immediately; the real names are fetched
+ * from Supabase by {@link UserProfileSyncWorker} after the transaction commits,
+ * so no request holds a DB connection across the Supabase round trip.
  */
 @Service
 public class UserDetailsSyncService {
 
-    private final UserDetailsRepository userDetailsRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    @Value("${supabase.url}")
-    private String supabaseUrl;
+    static final String PLACEHOLDER_FIRST_NAME = "Cube";
+    static final String PLACEHOLDER_LAST_NAME = "Member";
 
-    @Value("${supabase.key}")
-    private String supabaseKey;
+    private final UserDetailsRepository userDetailsRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserDetailsSyncService(UserDetailsRepository userDetailsRepository) {
+    public UserDetailsSyncService(UserDetailsRepository userDetailsRepository,
+                                  ApplicationEventPublisher eventPublisher) {
         this.userDetailsRepository = userDetailsRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public UserDetails ensureUserDetails(UUID userId) {
         Optional<UserDetails> existing = userDetailsRepository.findById(userId);
         if (existing.isPresent() && hasBasicProfile(existing.get())) {
+            if (isPlaceholderProfile(existing.get())) {
+                // Earlier sync never completed; try again in the background
+                eventPublisher.publishEvent(new ProfileSyncRequestedEvent(userId));
+            }
             return existing.get();
         }
 
@@ -49,10 +51,34 @@ public class UserDetailsSyncService {
             return details;
         });
 
-        JSONObject profile = fetchSupabaseUser(userId);
-        applyNamesFromProfile(entity, profile);
+        // Let the request proceed with a minimal record; real names arrive asynchronously
+        applyNamesFromProfile(entity, null);
+        UserDetails saved = userDetailsRepository.save(entity);
 
-        return userDetailsRepository.save(entity);
+        eventPublisher.publishEvent(new ProfileSyncRequestedEvent(userId));
+        return saved;
+    }
+
+    /**
+     * Replace blank or placeholder names with the ones from a fetched Supabase profile.
+     * Names the user already has are never overwritten.
+     */
+    @Transactional
+    public void applyProfile(UUID userId, JSONObject profile) {
+        UserDetails details = userDetailsRepository.findById(userId).orElse(null);
+        if (details == null) {
+            return;
+        }
+        if (hasBasicProfile(details) && !isPlaceholderProfile(details)) {
+            return;
+        }
+
+        if (isPlaceholderProfile(details)) {
+            details.setFirstName(null);
+            details.setLastName(null);
+        }
+        applyNamesFromProfile(details, profile);
+        userDetailsRepository.save(details);
     }
 
     private boolean hasBasicProfile(UserDetails details) {
@@ -60,34 +86,25 @@ public class UserDetailsSyncService {
                 && details.getLastName() != null && !details.getLastName().isBlank();
     }
 
-    private JSONObject fetchSupabaseUser(UUID userId) {
-        String url = supabaseUrl + "/auth/v1/admin/users/" + userId;
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("apikey", supabaseKey);
-        headers.set("Authorization", "Bearer " + supabaseKey);
-
-        HttpEntity<Void> request = new HttpEntity<>(headers);
+    private boolean isPlaceholderProfile(UserDetails details) {
+        return isPlaceholderName(details.getFirstName(), details.getLastName());
+    }
 
-        try {
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return new JSONObject(response.getBody());
-            }
-        } catch (RestClientException e) {
-            System.err.println("❌ Failed to fetch Supabase user " + userId + ": " + e.getMessage());
-        }
-        return null;
+    /**
+     * Whether the names are the placeholder given to new users until their profile sync completes
+     */
+    static boolean isPlaceholderName(String firstName, String lastName) {
+        return PLACEHOLDER_FIRST_NAME.equals(firstName) && PLACEHOLDER_LAST_NAME.equals(lastName);
     }
 
     private void applyNamesFromProfile(UserDetails details, JSONObject profile) {
         if (profile == null) {
             // Ensure at least minimal record exists
-            if (details.getFirstName() == null) {
-                details.setFirstName("Cube");
+            if (details.getFirstName() == null || details.getFirstName().isBlank()) {
+                details.setFirstName(PLACEHOLDER_FIRST_NAME);
             }
-            if (details.getLastName() == null) {
-                details.setLastName("Member");
+            if (details.getLastName() == null || details.getLastName().isBlank()) {
+                details.setLastName(PLACEHOLDER_LAST_NAME);
             }
             return;
         }
@@ -119,11 +136,11 @@ public class UserDetailsSyncService {
         }
 
         if (details.getFirstName() == null || details.getFirstName().isBlank()) {
-            details.setFirstName(firstName != null ? firstName : "Cube");
+            details.setFirstName(firstName != null ? firstName : PLACEHOLDER_FIRST_NAME);
         }
 
         if (details.getLastName() == null || details.getLastName().isBlank()) {
-            details.setLastName(lastName != null ? lastName : "Member");
+            details.setLastName(lastName != null ? lastName : PLACEHOLDER_LAST_NAME);
         }
     }
 
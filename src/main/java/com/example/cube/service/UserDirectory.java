@@ -0,0 +1,129 @@
+package com.example.cube.service;
+
+import com.example.cube.cache.ExpiringCache;
+import com.example.cube.event.UserDetailsChangedEvent;
+import com.example.cube.model.UserDetails;
+import com.example.cube.repository.UserDetailsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resolves user names for whole sets of user IDs at once.
+ *
+ * Names are served from a bounded cache; whatever is missing is loaded with a
+ * single findAllById query. Entries are dropped whenever the user's
+ * user_details row is written.
+ */
+@Service
+public class UserDirectory {
+
+    public static final String UNKNOWN_USER = "Unknown User";
+
+    // Cached marker for "no user_details row"
+    private static final Names MISSING = new Names(null, null);
+
+    private final UserDetailsRepository userDetailsRepository;
+    private final ExpiringCache<UUID, Names> names;
+    private final Duration ttl;
+
+    public UserDirectory(UserDetailsRepository userDetailsRepository,
+                         @Value("${cube.user-directory.max-entries:20000}") int maxEntries,
+                         @Value("${cube.user-directory.ttl-seconds:600}") long ttlSeconds) {
+        this.userDetailsRepository = userDetailsRepository;
+        this.names = new ExpiringCache<>(maxEntries);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Names for the given users, with at most one query for the ones not cached.
+     * Users without a user_details row are absent from the result.
+     */
+    public Map<UUID, Names> resolve(Collection<UUID> userIds) {
+        Map<UUID, Names> result = new HashMap<>();
+        Set<UUID> toLoad = new LinkedHashSet<>();
+
+        for (UUID userId : userIds) {
+            if (userId == null || result.containsKey(userId)) {
+                continue;
+            }
+            Names cached = names.get(userId);
+            if (cached == null) {
+                toLoad.add(userId);
+            } else if (cached != MISSING) {
+                result.put(userId, cached);
+            }
+        }
+
+        if (!toLoad.isEmpty()) {
+            for (UserDetails details : userDetailsRepository.findAllById(toLoad)) {
+                Names loaded = new Names(details.getFirstName(), details.getLastName());
+                names.put(details.getUser_id(), loaded, ttl);
+                result.put(details.getUser_id(), loaded);
+                toLoad.remove(details.getUser_id());
+            }
+            for (UUID missing : toLoad) {
+                names.put(missing, MISSING, ttl);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Display names ("First L.") for the given users; unknown users map to {@link #UNKNOWN_USER}.
+     */
+    public Map<UUID, String> displayNames(Collection<UUID> userIds) {
+        Map<UUID, Names> resolved = resolve(userIds);
+        Map<UUID, String> displayNames = new HashMap<>();
+        for (UUID userId : userIds) {
+            Names userNames = resolved.get(userId);
+            displayNames.put(userId, userNames != null ? userNames.displayName() : UNKNOWN_USER);
+        }
+        return displayNames;
+    }
+
+    public String displayName(UUID userId) {
+        return displayNames(List.of(userId)).get(userId);
+    }
+
+    @EventListener
+    public void onUserDetailsChanged(UserDetailsChangedEvent event) {
+        names.invalidate(event.userId());
+    }
+
+    // A lookup racing the write may have cached the pre-commit names; drop them again once it completes
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onUserDetailsChangeCompleted(UserDetailsChangedEvent event) {
+        names.invalidate(event.userId());
+    }
+
+    public long getHits() { return names.hitCount(); }
+
+    public long getMisses() { return names.missCount(); }
+
+    public int getSize() { return names.size(); }
+
+    public record Names(String firstName, String lastName) {
+
+        public String displayName() {
+            if (firstName != null && lastName != null && !lastName.isEmpty()) {
+                return firstName + " " + lastName.substring(0, 1) + ".";
+            } else if (firstName != null) {
+                return firstName;
+            }
+            return "User";
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.cube.service;
+
+import com.example.cube.config.HttpClientConfig;
+import com.example.cube.event.ProfileSyncRequestedEvent;
+import com.example.cube.service.supabass.SupabaseUserLookupService;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches Supabase profiles off the request path.
+ *
+ * Concurrent requests for the same user collapse into a single in-flight sync,
+ * and failed fetches are retried with exponential backoff.
+ */
+@Service
+public class UserProfileSyncWorker {
+
+    private final UserDetailsSyncService userDetailsSyncService;
+    private final SupabaseUserLookupService userLookupService;
+    private final RestTemplate restTemplate;
+
+    // Users with a sync queued or running (single-flight guard)
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor;
+
+    @Value("${supabase.url}")
+    private String supabaseUrl;
+
+    @Value("${supabase.key}")
+    private String supabaseKey;
+
+    @Value("${cube.profile-sync.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${cube.profile-sync.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${cube.profile-sync.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    public UserProfileSyncWorker(UserDetailsSyncService userDetailsSyncService,
+                                 SupabaseUserLookupService userLookupService,
+                                 @Qualifier(HttpClientConfig.SUPABASE) RestTemplate restTemplate,
+                                 @Value("${cube.profile-sync.threads:2}") int threads) {
+        this.userDetailsSyncService = userDetailsSyncService;
+        this.userLookupService = userLookupService;
+        this.restTemplate = restTemplate;
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "profile-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs after the requesting transaction commits, so the user_details row is visible.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileSyncRequested(ProfileSyncRequestedEvent event) {
+        submit(event.userId());
+    }
+
+    /**
+     * Queue a sync for the user unless one is already queued or running.
+     */
+    public void submit(UUID userId) {
+        if (!inFlight.add(userId)) {
+            return;
+        }
+        executor.execute(() -> attempt(userId, 1));
+    }
+
+    public boolean isInFlight(UUID userId) {
+        return inFlight.contains(userId);
+    }
+
+    private void attempt(UUID userId, int attempt) {
+        // The user stays in flight only while a retry is scheduled; any other exit releases it
+        boolean retryScheduled = false;
+        try {
+            JSONObject profile = fetchSupabaseUser(userId);
+            if (profile == null) {
+                retryScheduled = scheduleRetry(userId, attempt);
+                return;
+            }
+
+            // Replace whatever was cached for this user with the fresh profile, and warm the
+            // email lookup so joins by this user don't need another Supabase call
+            userLookupService.invalidateUser(userId.toString());
+            userLookupService.remember(userId.toString(), profile.optString("email", null));
+
+            userDetailsSyncService.applyProfile(userId, profile);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Supabase profile sync for " + userId + " failed: " + e.getMessage());
+            retryScheduled = scheduleRetry(userId, attempt);
+        } finally {
+            if (!retryScheduled) {
+                inFlight.remove(userId);
+            }
+        }
+    }
+
+    private boolean scheduleRetry(UUID userId, int attempt) {
+        if (attempt >= maxAttempts) {
+            System.err.println("❌ Giving up on Supabase profile sync for " + userId + " after " + attempt + " attempts");
+            return false;
+        }
+        long delay = Math.min(initialBackoffMs << (attempt - 1), maxBackoffMs);
+        try {
+            executor.schedule(() -> attempt(userId, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            return false;
+        }
+    }
+
+    private JSONObject fetchSupabaseUser(UUID userId) {
+        String url = supabaseUrl + "/auth/v1/admin/users/" + userId;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("apikey", supabaseKey);
+        headers.set("Authorization", "Bearer " + supabaseKey);
+
+        HttpEntity<Void> request = new HttpEntity<>(headers);
+
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, request, String.class);
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                return new JSONObject(response.getBody());
+            }
+        } catch (RestClientException e) {
+            System.err.println("❌ Failed to fetch Supabase user " + userId + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
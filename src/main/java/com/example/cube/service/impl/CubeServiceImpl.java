@@ -1,12 +1,21 @@
 package com.example.cube.service.impl;
 
+import com.example.cube.dto.KeysetCursor;
 import com.example.cube.dto.request.CreateCubeRequest;
 import com.example.cube.dto.response.CubeActivityResponse;
+import com.example.cube.dto.response.CubeSummaryResponse;
 import com.example.cube.dto.response.WinnerResponse;
 import com.example.cube.mapper.CubeMapper;
 import com.example.cube.model.*;
+import com.example.cube.reference.ReferenceDataRegistry;
+import com.example.cube.reference.RoleId;
+import com.example.cube.reference.RotationSystemId;
 import com.example.cube.repository.*;
+import com.example.cube.security.MembershipIndex;
+import com.example.cube.service.CubeActivityRecorder;
 import com.example.cube.service.CubeService;
+import com.example.cube.service.InvitationCodeAllocator;
+import com.example.cube.service.UserDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,9 +25,9 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.security.SecureRandom;
 
 @Service
 public class CubeServiceImpl implements CubeService {
@@ -28,23 +37,27 @@ public class CubeServiceImpl implements CubeService {
     private final CubeMemberRepository cubeMemberRepository;
 
     @Autowired
-    private DurationOptionRepository durationRepo;
-
-    @Autowired
-    private GoalTypeRepository goalTypeRepo;
+    private ReferenceDataRegistry referenceData;
     
     @Autowired
-    private PaymentTransactionRepository paymentTransactionRepository;
-    
+    private CubeActivityEventRepository activityEventRepository;
+
+    @Autowired
+    private CubeActivityRecorder activityRecorder;
+
     @Autowired
     private CycleWinnerRepository cycleWinnerRepository;
     
     @Autowired
-    private UserDetailsRepository userDetailsRepository;
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private InvitationCodeAllocator invitationCodeAllocator;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
 
-    private static final String INVITATION_CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    private static final int INVITATION_CODE_LENGTH = 6;
-    private static final SecureRandom random = new SecureRandom();
+    private static final int MAX_ACTIVITY_PAGE_SIZE = 100;
 
     @Autowired
     public CubeServiceImpl(CubeRepository cubeRepository, CubeMapper cubeMapper, CubeMemberRepository cubeMemberRepository) {
@@ -65,34 +78,38 @@ public class CubeServiceImpl implements CubeService {
 
         cube = cubeMapper.toEntity(createCubeRequest);
         cube.setUser_id(userId);
-        cube.setDuration(durationRepo.getReferenceById(createCubeRequest.getDurationId()));
-        
-        // Set goal type: default to "personal" (assuming ID 1) if not provided
+        referenceData.duration(createCubeRequest.getDurationId())
+                .orElseThrow(() -> new RuntimeException("Duration not found with ID: " + createCubeRequest.getDurationId()));
+
+        // Set goal type: default to "personal" if not provided
         if (createCubeRequest.getGoalTypeId() != null) {
-            GoalType goalType = goalTypeRepo.findById(createCubeRequest.getGoalTypeId())
+            ReferenceDataRegistry.Goal goalType = referenceData.goalType(createCubeRequest.getGoalTypeId())
                     .orElseThrow(() -> new RuntimeException("Goal type not found with ID: " + createCubeRequest.getGoalTypeId()));
-            cube.setGoalType(goalType);
+            cube.setGoalTypeId(goalType.id());
         } else {
-            // Default to "personal" - you may need to adjust the ID or fetch by name
-            GoalType personalGoalType = goalTypeRepo.findById(1)
+            ReferenceDataRegistry.Goal personalGoalType = referenceData.goalType(ReferenceDataRegistry.DEFAULT_GOAL_TYPE_ID)
                     .orElseThrow(() -> new RuntimeException("Default goal type 'personal' not found"));
-            cube.setGoalType(personalGoalType);
+            cube.setGoalTypeId(personalGoalType.id());
         }
         
-        // Generate unique invitation code
-        cube.setInvitationCode(generateUniqueInvitationCode());
+        // Allocate unique invitation code
+        cube.setInvitationCode(invitationCodeAllocator.nextCode());
         
         cube.setCurrentCycle(1);
-        cube.setRotationId(1);
+        cube.setRotationId(RotationSystemId.RANDOM.id());
         savedCube = cubeRepository.save(cube);
+        invitationCodeAllocator.remember(savedCube.getInvitationCode(), savedCube.getCubeId());
 
         // Add creator as admin member
         creatorMember = new CubeMember();
         creatorMember.setCubeId(savedCube.getCubeId());
         creatorMember.setUserId(userId);  // ✅ Use the userId parameter from auth token
-        creatorMember.setRoleId(1);  // 1 = Admin role
+        creatorMember.setRoleId(RoleId.ADMIN.id());
         cubeMemberRepository.save(creatorMember);
 
+        activityRecorder.cubeCreated(savedCube);
+        activityRecorder.memberJoined(savedCube, creatorMember);
+
         return savedCube;
     }
 
@@ -107,41 +124,21 @@ public class CubeServiceImpl implements CubeService {
         }
     }
 
-    /**
-     * Generate a unique 6-character alphanumeric invitation code
-     */
-    private String generateUniqueInvitationCode() {
-        String code;
-        int attempts = 0;
-        int maxAttempts = 10;
-        
-        do {
-            code = generateRandomCode();
-            attempts++;
-            
-            if (attempts >= maxAttempts) {
-                throw new RuntimeException("Unable to generate unique invitation code after " + maxAttempts + " attempts");
-            }
-        } while (cubeRepository.existsByInvitationCode(code));
-        
-        return code;
-    }
-
-    /**
-     * Generate a random 6-character code
-     */
-    private String generateRandomCode() {
-        StringBuilder code = new StringBuilder(INVITATION_CODE_LENGTH);
-        for (int i = 0; i < INVITATION_CODE_LENGTH; i++) {
-            code.append(INVITATION_CODE_CHARS.charAt(random.nextInt(INVITATION_CODE_CHARS.length())));
-        }
-        return code.toString();
+    @Override
+    public List<UUID> getUserCubeIds(UUID userId) {
+        return new ArrayList<>(membershipIndex.cubeIds(userId));
     }
 
     @Override
-    public List<UUID> getUserCubeIds(UUID userId) {
-        List<CubeMember> membershipList = cubeMemberRepository.findByUserId(userId);
-        return membershipList.stream().map(CubeMember::getCubeId).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<CubeSummaryResponse> getUserCubeSummaries(UUID userId) {
+        List<Object[]> rows = cubeRepository.findCubeSummariesForUser(userId);
+        List<CubeSummaryResponse> summaries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            summaries.add(cubeMapper.toCubeSummaryResponse(
+                    (Cube) row[0], (CubeMember) row[1], (Long) row[2], (Long) row[3]));
+        }
+        return summaries;
     }
 
     @Override
@@ -151,96 +148,52 @@ public class CubeServiceImpl implements CubeService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<CubeActivityResponse> getCubeActivity(UUID cubeId, int limit) {
-        List<CubeActivityResponse> activities = new ArrayList<>();
-        
-        // 1. Get recent payments (transactions)
-        List<Transaction> payments = paymentTransactionRepository.findTop20ByCubeIdOrderByCreatedAtDesc(cubeId);
-        for (Transaction payment : payments) {
-            CubeActivityResponse activity = new CubeActivityResponse();
-            activity.setActivityType("PAYMENT");
-            activity.setUserId(payment.getUserId());
-            activity.setTimestamp(payment.getCreatedAt());
-            activity.setAmount(payment.getAmount());
-            activity.setCycleNumber(payment.getCycleNumber());
-            activity.setColorCode("green");
-            
-            // Get user name
-            String userName = getUserName(payment.getUserId());
-            activity.setUserName(userName);
-            activity.setActivityText(userName + " contributed to pool");
-            
-            activities.add(activity);
-        }
-        
-        // 2. Get recent winners
-        List<CycleWinner> winners = cycleWinnerRepository.findTop10ByCubeIdOrderBySelectedAtDesc(cubeId);
-        for (CycleWinner winner : winners) {
-            CubeActivityResponse activity = new CubeActivityResponse();
-            activity.setActivityType("WINNER");
-            activity.setUserId(winner.getUserId());
-            activity.setTimestamp(winner.getSelectedAt());
-            activity.setAmount(winner.getPayoutAmount());
-            activity.setCycleNumber(winner.getCycleNumber());
-            activity.setColorCode("yellow");
-            
-            String userName = getUserName(winner.getUserId());
-            activity.setUserName(userName);
-            activity.setActivityText(userName + " won round " + winner.getCycleNumber());
-            
-            activities.add(activity);
-        }
-        
-        // 3. Get recent member joins
-        List<CubeMember> members = cubeMemberRepository.findTop20ByCubeIdOrderByJoinedAtDesc(cubeId);
-        for (CubeMember member : members) {
-            CubeActivityResponse activity = new CubeActivityResponse();
-            activity.setActivityType("MEMBER_JOIN");
-            activity.setUserId(member.getUserId());
-            activity.setTimestamp(member.getJoinedAt());
-            activity.setColorCode("blue");
-            
-            String userName = getUserName(member.getUserId());
+    public List<CubeActivityResponse> getCubeActivity(UUID cubeId, LocalDateTime before, UUID beforeId, int limit) {
+        KeysetCursor cursor = KeysetCursor.of(before, beforeId);
+        List<CubeActivityEvent> events = activityEventRepository.findCubePage(
+                cubeId, cursor.timestamp(), cursor.id(), KeysetCursor.pageSize(limit, MAX_ACTIVITY_PAGE_SIZE));
+
+        // Events recorded while the user's profile sync was pending have no name; resolve those now
+        Map<UUID, String> pendingNames = userDirectory.displayNames(events.stream()
+                .filter(event -> event.getUserName() == null)
+                .map(CubeActivityEvent::getUserId)
+                .collect(Collectors.toSet()));
+
+        List<CubeActivityResponse> activities = new ArrayList<>(events.size());
+        for (CubeActivityEvent event : events) {
+            CubeActivityResponse activity = toActivityResponse(event);
+            String userName = event.getUserName() != null ? event.getUserName() : pendingNames.get(event.getUserId());
             activity.setUserName(userName);
-            activity.setActivityText(userName + " joined the cube");
-            
+
+            switch (event.getActivityType()) {
+                case CubeActivityEvent.PAYMENT -> {
+                    activity.setActivityText(userName + " contributed to pool");
+                    activity.setColorCode("green");
+                }
+                case CubeActivityEvent.WINNER -> {
+                    activity.setActivityText(userName + " won round " + event.getCycleNumber());
+                    activity.setColorCode("yellow");
+                }
+                default -> {
+                    activity.setActivityText(userName + " joined the cube");
+                    activity.setColorCode("blue");
+                }
+            }
             activities.add(activity);
         }
-        
-        // 4. Sort by timestamp (newest first) and limit
-        return activities.stream()
-                .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-                .limit(limit)
-                .collect(Collectors.toList());
-    }
-    
-    /**
-     * Helper method to get user display name
-     */
-    private String getUserName(UUID userId) {
-        return userDetailsRepository.findById(userId)
-                .map(u -> {
-                    String first = u.getFirstName();
-                    String last = u.getLastName();
-                    if (first != null && last != null && !last.isEmpty()) {
-                        return first + " " + last.substring(0, 1) + ".";
-                    } else if (first != null) {
-                        return first;
-                    }
-                    return "User";
-                })
-                .orElse("Unknown User");
+        return activities;
     }
 
     @Override
     public List<WinnerResponse> getPreviousWinners(UUID cubeId) {
         // Get all winners for the cube, ordered by cycle number ascending
         List<CycleWinner> winners = cycleWinnerRepository.findByCubeIdOrderByCycleNumberAsc(cubeId);
-        
+        Map<UUID, String> userNames = userDirectory.displayNames(
+                winners.stream().map(CycleWinner::getUserId).toList());
+
         // Map to response DTOs
         return winners.stream().map(winner -> {
-            // Get user name from user_id
-            String userName = getUserName(winner.getUserId());
+            String userName = userNames.get(winner.getUserId());
             
             // Get first initial for avatar
             String userInitial = userName != null && !userName.isEmpty() 
@@ -261,92 +214,51 @@ public class CubeServiceImpl implements CubeService {
     }
 
     @Override
-    public List<CubeActivityResponse> getUserActivity(UUID userId, int limit) {
-        List<CubeActivityResponse> activities = new ArrayList<>();
-        
-        // 1. Get cubes the user created (top 10 most recent)
-        List<Cube> createdCubes = cubeRepository.findTop10ByUserIdOrderByCreatedAtDesc(
-            userId, 
-            org.springframework.data.domain.PageRequest.of(0, 10)
-        );
-        for (Cube cube : createdCubes) {
-            CubeActivityResponse activity = new CubeActivityResponse();
-            activity.setActivityType("CUBE_CREATED");
-            activity.setCubeId(cube.getCubeId());
-            activity.setCubeName(cube.getName());
-            activity.setActivityText("You created " + cube.getName());
-            activity.setUserId(userId);
-            activity.setTimestamp(cube.getCreatedAt() != null ? LocalDateTime.from(cube.getCreatedAt()) : LocalDateTime.now());
-            activity.setColorCode("purple");
-            activities.add(activity);
-        }
-        
-        // 2. Get cubes the user joined (top 20 most recent)
-        List<CubeMember> memberJoins = cubeMemberRepository.findTop20ByUserIdOrderByJoinedAtDesc(userId);
-        for (CubeMember member : memberJoins) {
-            // Get cube details
-            Cube cube = cubeRepository.findById(member.getCubeId()).orElse(null);
-            if (cube == null) continue;
-            
-            CubeActivityResponse activity = new CubeActivityResponse();
-            activity.setActivityType("CUBE_JOINED");
-            activity.setCubeId(cube.getCubeId());
-            activity.setCubeName(cube.getName());
-            activity.setActivityText("You joined " + cube.getName());
-            activity.setUserId(userId);
-            activity.setTimestamp(member.getJoinedAt());
-            activity.setColorCode("blue");
-            activities.add(activity);
-        }
-        
-        // 3. Get user's payments (top 20 most recent)
-        List<Transaction> payments = paymentTransactionRepository.findTop20ByUserIdOrderByCreatedAtDesc(userId);
-        for (Transaction payment : payments) {
-            // Only include completed payments
-            if (payment.getStatusId() == null || payment.getStatusId() != 2) continue;
-            
-            // Get cube details
-            Cube cube = cubeRepository.findById(payment.getCubeId()).orElse(null);
-            if (cube == null) continue;
-            
-            CubeActivityResponse activity = new CubeActivityResponse();
-            activity.setActivityType("PAYMENT");
-            activity.setCubeId(cube.getCubeId());
-            activity.setCubeName(cube.getName());
-            activity.setActivityText("You paid for " + cube.getName());
-            activity.setUserId(userId);
-            activity.setTimestamp(payment.getCreatedAt());
-            activity.setAmount(payment.getAmount());
-            activity.setCycleNumber(payment.getCycleNumber());
-            activity.setColorCode("green");
-            activities.add(activity);
-        }
-        
-        // 4. Get user's wins (top 10 most recent)
-        List<CycleWinner> wins = cycleWinnerRepository.findTop10ByUserIdOrderBySelectedAtDesc(userId);
-        for (CycleWinner win : wins) {
-            // Get cube details
-            Cube cube = cubeRepository.findById(win.getCubeId()).orElse(null);
-            if (cube == null) continue;
-            
-            CubeActivityResponse activity = new CubeActivityResponse();
-            activity.setActivityType("WINNER");
-            activity.setCubeId(cube.getCubeId());
-            activity.setCubeName(cube.getName());
-            activity.setActivityText("You won cycle " + win.getCycleNumber() + " in " + cube.getName());
-            activity.setUserId(userId);
-            activity.setTimestamp(win.getSelectedAt());
-            activity.setAmount(win.getPayoutAmount());
-            activity.setCycleNumber(win.getCycleNumber());
-            activity.setColorCode("yellow");
+    @Transactional(readOnly = true)
+    public List<CubeActivityResponse> getUserActivity(UUID userId, LocalDateTime before, UUID beforeId, int limit) {
+        KeysetCursor cursor = KeysetCursor.of(before, beforeId);
+        List<CubeActivityEvent> events = activityEventRepository.findUserPage(
+                userId, cursor.timestamp(), cursor.id(), KeysetCursor.pageSize(limit, MAX_ACTIVITY_PAGE_SIZE));
+
+        List<CubeActivityResponse> activities = new ArrayList<>(events.size());
+        for (CubeActivityEvent event : events) {
+            CubeActivityResponse activity = toActivityResponse(event);
+
+            switch (event.getActivityType()) {
+                case CubeActivityEvent.CUBE_CREATED -> {
+                    activity.setActivityText("You created " + event.getCubeName());
+                    activity.setColorCode("purple");
+                }
+                case CubeActivityEvent.PAYMENT -> {
+                    activity.setActivityText("You paid for " + event.getCubeName());
+                    activity.setColorCode("green");
+                }
+                case CubeActivityEvent.WINNER -> {
+                    activity.setActivityText("You won cycle " + event.getCycleNumber() + " in " + event.getCubeName());
+                    activity.setColorCode("yellow");
+                }
+                default -> {
+                    activity.setActivityType("CUBE_JOINED");
+                    activity.setActivityText("You joined " + event.getCubeName());
+                    activity.setColorCode("blue");
+                }
+            }
             activities.add(activity);
         }
-        
-        // 5. Sort by timestamp (newest first) and limit
-        return activities.stream()
-                .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return activities;
+    }
+
+    private static CubeActivityResponse toActivityResponse(CubeActivityEvent event) {
+        CubeActivityResponse activity = new CubeActivityResponse();
+        activity.setActivityType(event.getActivityType());
+        activity.setActivityId(event.getEventId());
+        activity.setUserId(event.getUserId());
+        activity.setCubeId(event.getCubeId());
+        activity.setCubeName(event.getCubeName());
+        activity.setTimestamp(event.getOccurredAt());
+        activity.setAmount(event.getAmount());
+        activity.setCycleNumber(event.getCycleNumber());
+        return activity;
     }
 
 }
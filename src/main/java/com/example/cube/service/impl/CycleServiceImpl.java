@@ -1,15 +1,25 @@
 package com.example.cube.service.impl;
 
+import com.example.cube.event.CubeDueTimeChangedEvent;
+import com.example.cube.event.CubeMembershipChangedEvent;
 import com.example.cube.model.Cube;
 import com.example.cube.model.CubeMember;
 import com.example.cube.model.CycleWinner;
+import com.example.cube.reference.CubeStatusId;
+import com.example.cube.reference.MemberStatusId;
+import com.example.cube.reference.ReferenceDataRegistry;
+import com.example.cube.reference.RoleId;
+import com.example.cube.reference.TransactionStatusId;
+import com.example.cube.reference.TransactionTypeId;
 import com.example.cube.repository.CubeMemberRepository;
 import com.example.cube.repository.CubeRepository;
 import com.example.cube.repository.CycleWinnerRepository;
 import com.example.cube.repository.PaymentTransactionRepository;
+import com.example.cube.service.CubeActivityRecorder;
 import com.example.cube.service.CycleService;
 import com.example.cube.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +28,7 @@ import java.security.SecureRandom;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -31,18 +42,27 @@ public class CycleServiceImpl implements CycleService {
     private final PaymentTransactionRepository paymentTransactionRepository;
     private final CycleWinnerRepository cycleWinnerRepository;
     private final EmailService emailService;
+    private final CubeActivityRecorder activityRecorder;
+    private final ReferenceDataRegistry referenceData;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public CycleServiceImpl(CubeRepository cubeRepository,
                             CubeMemberRepository cubeMemberRepository,
                             PaymentTransactionRepository paymentTransactionRepository,
                             CycleWinnerRepository cycleWinnerRepository,
-                            EmailService emailService) {
+                            EmailService emailService,
+                            CubeActivityRecorder activityRecorder,
+                            ReferenceDataRegistry referenceData,
+                            ApplicationEventPublisher eventPublisher) {
         this.cubeRepository = cubeRepository;
         this.cubeMemberRepository = cubeMemberRepository;
         this.paymentTransactionRepository = paymentTransactionRepository;
         this.cycleWinnerRepository = cycleWinnerRepository;
         this.emailService = emailService;
+        this.activityRecorder = activityRecorder;
+        this.referenceData = referenceData;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -71,12 +91,12 @@ public class CycleServiceImpl implements CycleService {
         }
 
         // 4. Check if already active
-        if (cube.getStatusId() == 2) {
+        if (CubeStatusId.ACTIVE.is(cube.getStatusId())) {
             throw new RuntimeException("Cube is already active");
         }
 
         // 5. Check if user is admin (roleId = 1)
-        if (member.getRoleId() != 1) {
+        if (!RoleId.ADMIN.is(member.getRoleId())) {
             throw new RuntimeException("Only admin can start cube");
         }
 
@@ -91,8 +111,8 @@ public class CycleServiceImpl implements CycleService {
                 .countByCubeIdAndCycleNumberAndTypeIdAndStatusId(
                         cubeId,
                         1,  // cycle 1
-                        1,  // contribution
-                        2   // completed
+                        TransactionTypeId.PAYMENT.id(),
+                        TransactionStatusId.COMPLETED.id()
                 );
 
         if (paidMembers < memberCount) {
@@ -100,7 +120,7 @@ public class CycleServiceImpl implements CycleService {
         }
 
         // 8. Activate the cube
-        cube.setStatusId(2);  // active
+        cube.setStatusId(CubeStatusId.ACTIVE.id());
         if (cube.getStartDate() == null) {
             cube.setStartDate(Instant.now());
         }
@@ -108,74 +128,79 @@ public class CycleServiceImpl implements CycleService {
 
         System.out.println("✅ Cube " + cube.getName() + " manually started by admin " + userId + " (member: " + memberId + ")");
 
-        return cubeRepository.save(cube);
+        Cube saved = cubeRepository.save(cube);
+        eventPublisher.publishEvent(new CubeDueTimeChangedEvent(cubeId, saved.getNextPayoutDate()));
+        return saved;
     }
 
     @Override
     @Transactional
     public void processCycle(UUID cubeId) {
 
-        // 1. Get cube
-        Cube cube = cubeRepository.findById(cubeId)
-                .orElseThrow(() -> new RuntimeException("Cube not found"));
+        // 1. Claim the cube row (FOR UPDATE SKIP LOCKED); held until this transaction ends
+        Cube cube = cubeRepository.claimForCycleProcessing(cubeId).orElse(null);
+        if (cube == null) {
+            if (!cubeRepository.existsById(cubeId)) {
+                throw new RuntimeException("Cube not found");
+            }
+            System.out.println("ℹ️ Cube " + cubeId + " is being processed by another instance, skipping");
+            return;
+        }
+
+        // Re-checked under the lock: if another instance already handled this cycle,
+        // the cube is no longer due / active and there is nothing to do.
 
         // 2. Validate timing
         Instant now = Instant.now();
         if (cube.getNextPayoutDate() != null && now.isBefore(cube.getNextPayoutDate())) {
-            throw new RuntimeException("Not time for payout yet. Next payout at: " + cube.getNextPayoutDate());
+            System.out.println("ℹ️ Cube " + cubeId + " is not due anymore (next payout at " + cube.getNextPayoutDate() + "), skipping");
+            return;
         }
 
         int currentCycle = cube.getCurrentCycle();
 
         // 3. Check if cube is active
-        if (cube.getStatusId() != 2) {
-            throw new RuntimeException("Cube must be active to process cycle. Current status: " + cube.getStatusId());
+        if (!CubeStatusId.ACTIVE.is(cube.getStatusId())) {
+            System.out.println("ℹ️ Cube " + cubeId + " is no longer active (status " + cube.getStatusId() + "), skipping");
+            return;
         }
 
-        // 4. Check if winner already selected for this cycle
-        if (cycleWinnerRepository.existsByCubeIdAndCycleNumber(cubeId, currentCycle)) {
+        // 4. Load members and past winners once; everything below works off this
+        CycleContext context = loadContext(cube);
+
+        // 5. Check if winner already selected for this cycle
+        if (context.hasWinnerFor(currentCycle)) {
             throw new RuntimeException("Winner already selected for cycle " + currentCycle);
         }
 
-        // 5. Verify all members have paid for current cycle before selecting winner
-        if (!haveAllMembersPaid(cubeId, currentCycle)) {
+        // 6. Verify all members have paid for current cycle before selecting winner
+        if (!haveAllMembersPaid(context.members())) {
             System.out.println("⚠️ Not all members have paid for cycle " + currentCycle + ". Skipping winner selection.");
             return;  // Exit early, don't select winner yet
         }
 
-        // 6. Get all members
-        List<CubeMember> allMembers = cubeMemberRepository.findByCubeId(cubeId);
-
-        // 7. Get members who have already won
-        List<CycleWinner> winners = cycleWinnerRepository.findByCubeIdOrderByCycleNumberAsc(cubeId);
-        Set<UUID> winnerUserIds = winners.stream()
-                .map(CycleWinner::getUserId)
-                .collect(Collectors.toSet());
-
-        // 8. Find members who haven't won yet
-        List<CubeMember> eligibleMembers = allMembers.stream()
+        // 7. Find members who haven't won yet
+        Set<UUID> winnerUserIds = context.winnerUserIds();
+        List<CubeMember> eligibleMembers = context.members().stream()
                 .filter(member -> !winnerUserIds.contains(member.getUserId()))
                 .collect(Collectors.toList());
 
         // Safety check: if all members have won (shouldn't happen with new logic, but defensive)
         if (eligibleMembers.isEmpty()) {
             System.out.println("✅ All members have won their cycles. Completing cube (safety check).");
-            cube.setStatusId(3);  // completed
-            cube.setEndDate(Instant.now());
-            cube.setNextPayoutDate(null);
-            cubeRepository.save(cube);
+            completeCube(cube);
             return;
         }
 
-        // 9. Select random winner from eligible members
+        // 8. Select random winner from eligible members
         SecureRandom random = new SecureRandom();
         CubeMember winner = eligibleMembers.get(random.nextInt(eligibleMembers.size()));
 
-        // 10. Calculate payout amount
+        // 9. Calculate payout amount
         BigDecimal payoutAmount = cube.getAmountPerCycle()
                 .multiply(BigDecimal.valueOf(cube.getNumberofmembers()));
 
-        // 11. Record winner in cycle_winners table
+        // 10. Record winner in cycle_winners table
         CycleWinner cycleWinner = new CycleWinner();
         cycleWinner.setCubeId(cubeId);
         cycleWinner.setMemberId(winner.getMemberId());
@@ -186,33 +211,22 @@ public class CycleServiceImpl implements CycleService {
         cycleWinner.setPayoutSent(false);
 
         cycleWinnerRepository.save(cycleWinner);
+        activityRecorder.winnerSelected(cube, cycleWinner);
+        winnerUserIds.add(winner.getUserId());
 
         System.out.println("✅ Winner selected for cycle " + currentCycle);
         System.out.println("   Cube: " + cubeId);
         System.out.println("   Winner: " + winner.getUserId());
         System.out.println("   Amount: $" + payoutAmount);
 
-        // Check if this was the last member to win
-        List<CycleWinner> allWinnersNow = cycleWinnerRepository.findByCubeIdOrderByCycleNumberAsc(cubeId);
-        Set<UUID> allWinnerUserIds = allWinnersNow.stream()
-                .map(CycleWinner::getUserId)
-                .collect(Collectors.toSet());
-
-        // Send notification emails
-        try {
-            emailService.sendWinnerNotificationEmails(cube, winner, payoutAmount, currentCycle);
-        } catch (Exception e) {
-            // Log error but don't fail the transaction - winner is already recorded
-            System.err.println("⚠️ Failed to send notification emails, but cycle processing completed: " + e.getMessage());
-        }
+        // Queue notification emails in this transaction; they are sent after commit
+        emailService.sendWinnerNotificationEmails(cube, winner, payoutAmount, currentCycle);
 
-        if (allWinnerUserIds.size() >= allMembers.size()) {
+        // Check if this was the last member to win
+        if (winnerUserIds.size() >= context.members().size()) {
             // All members have won - complete the cube now
             System.out.println("✅ All members have won their cycles. Completing cube after cycle " + currentCycle + ".");
-            cube.setStatusId(3);  // completed
-            cube.setEndDate(Instant.now());
-            cube.setNextPayoutDate(null);
-            cubeRepository.save(cube);
+            completeCube(cube);
             return;  // Exit without incrementing cycle
         }
 
@@ -221,18 +235,35 @@ public class CycleServiceImpl implements CycleService {
         cube.setCurrentCycle(currentCycle + 1);
         cube.setNextPayoutDate(calculateNextPayoutDate(cube));
         cubeRepository.save(cube);
+        eventPublisher.publishEvent(new CubeDueTimeChangedEvent(cubeId, cube.getNextPayoutDate()));
 
         // Reset member payment statuses for next cycle
-        resetMemberPaymentStatuses(cubeId);
+        resetMemberPaymentStatuses(context);
+    }
+
+    private CycleContext loadContext(Cube cube) {
+        return new CycleContext(
+                cube,
+                cubeMemberRepository.findByCubeId(cube.getCubeId()),
+                cycleWinnerRepository.findByCubeIdOrderByCycleNumberAsc(cube.getCubeId()));
+    }
+
+    private void completeCube(Cube cube) {
+        cube.setStatusId(CubeStatusId.COMPLETED.id());
+        cube.setEndDate(Instant.now());
+        cube.setNextPayoutDate(null);
+        cubeRepository.save(cube);
+        eventPublisher.publishEvent(new CubeDueTimeChangedEvent(cube.getCubeId(), null));
     }
 
     private Instant calculateNextPayoutDate(Cube cube) {
-        if (cube.getDuration() == null || cube.getStartDate() == null) {
+        ReferenceDataRegistry.Duration duration = referenceData.duration(cube.getDurationId()).orElse(null);
+        if (duration == null || cube.getStartDate() == null) {
             return null;
         }
 
-        String durationName = cube.getDuration().getDurationName();
-        int durationDays = cube.getDuration().getDurationDays();
+        String durationName = duration.name();
+        int durationDays = duration.days();
         int current = cube.getCurrentCycle() != null ? cube.getCurrentCycle() : 1;
 
         // Testing shortcut: if duration name indicates 3-minute cycles, advance in minutes/ remove in prod
@@ -245,38 +276,51 @@ public class CycleServiceImpl implements CycleService {
         return cube.getStartDate().plus(days, ChronoUnit.DAYS);
     }
 
-    // Helper method to check if all members have paid for a cycle
-    private boolean haveAllMembersPaid(UUID cubeId, Integer cycleNumber) {
-        // Get all members in the cube
-        List<CubeMember> members = cubeMemberRepository.findByCubeId(cubeId);
-        
+    // Helper method to check if all members have paid for the current cycle
+    private boolean haveAllMembersPaid(List<CubeMember> members) {
         if (members.isEmpty()) {
             return false;
         }
 
-        // Check if all members have status_id = 2 (paid)
+        // Check if all members have paid
         boolean allPaid = members.stream()
-                .allMatch(m -> m.getStatusId() != null && m.getStatusId() == 2);
-        
+                .allMatch(m -> MemberStatusId.PAID.is(m.getStatusId()));
+
         if (!allPaid) {
             long paidCount = members.stream()
-                    .filter(m -> m.getStatusId() != null && m.getStatusId() == 2)
+                    .filter(m -> MemberStatusId.PAID.is(m.getStatusId()))
                     .count();
             System.out.println("   Payment status: " + paidCount + "/" + members.size() + " members have paid");
         }
-        
+
         return allPaid;
     }
 
-    // ✅ ADD: Helper method to reset all member payment statuses
-    private void resetMemberPaymentStatuses(UUID cubeId) {
-        List<CubeMember> members = cubeMemberRepository.findByCubeId(cubeId);
-        
-        for (CubeMember member : members) {
-            member.setStatusId(1);  // Reset to "has not paid"
+    // Reset all member payment statuses with a single UPDATE
+    private void resetMemberPaymentStatuses(CycleContext context) {
+        UUID cubeId = context.cube().getCubeId();
+        int updated = cubeMemberRepository.updateStatusIdByCubeId(cubeId, MemberStatusId.NOT_PAID.id());
+
+        // The bulk update bypasses the entity listener, so announce the change ourselves
+        for (CubeMember member : context.members()) {
+            eventPublisher.publishEvent(new CubeMembershipChangedEvent(member.getUserId(), cubeId));
+        }
+        System.out.println("✅ Reset payment status to 'has not paid' for " + updated + " members");
+    }
+
+    /**
+     * Everything one processCycle call needs, loaded once after the cube is claimed.
+     */
+    private record CycleContext(Cube cube, List<CubeMember> members, List<CycleWinner> winners) {
+
+        boolean hasWinnerFor(int cycleNumber) {
+            return winners.stream().anyMatch(w -> w.getCycleNumber() != null && w.getCycleNumber() == cycleNumber);
+        }
+
+        Set<UUID> winnerUserIds() {
+            return winners.stream()
+                    .map(CycleWinner::getUserId)
+                    .collect(Collectors.toCollection(HashSet::new));
         }
-        
-        cubeMemberRepository.saveAll(members);
-        System.out.println("✅ Reset payment status to 'has not paid' for " + members.size() + " members");
     }
-}
\ No newline at end of file
+}
@@ -1,34 +1,36 @@
 package com.example.cube.service.impl;
 
 import com.example.cube.dto.MemberWithContact;
+import com.example.cube.event.EmailQueuedEvent;
 import com.example.cube.model.Cube;
 import com.example.cube.model.CubeMember;
+import com.example.cube.reference.CubeStatusId;
+import com.example.cube.reference.MemberStatusId;
+import com.example.cube.reference.RoleId;
 import com.example.cube.repository.CubeMemberRepository;
 import com.example.cube.repository.CubeRepository;
+import com.example.cube.repository.EmailOutboxRepository;
 import com.example.cube.service.EmailService;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Builds the app's emails and queues them in the email outbox, in the caller's transaction.
+ * Delivery happens after commit in EmailOutboxDispatcher.
+ */
 @Service
 public class EmailServiceImpl implements EmailService {
 
     @Value("${cube.frontend.url:http://localhost:3000}")
     private String frontendUrl;
 
-    @Value("${resend.api.key}")
-    private String resendApiKey;
-
-    @Value("${resend.from.email:no-reply@cubemoney.io}")
-    private String fromEmail;
-
     @Value("${admin.email}")
     private String adminEmail;
 
@@ -41,143 +43,83 @@ public class EmailServiceImpl implements EmailService {
     @Autowired
     private CubeRepository cubeRepository;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
-    public void sendInvitationEmail(String email, String invitationCode, String cubeName, UUID invitedBy) {
-        // Resend API endpoint
-        String resendApiUrl = "https://api.resend.com/emails";
-
-        // Build headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + resendApiKey);
-        final String verifiedSender = fromEmail != null ? fromEmail : "no-reply@cubemoney.io";
-
-        // Build email body
-        JSONObject emailBody = new JSONObject();
-        emailBody.put("from", verifiedSender);
-        emailBody.put("to", email);
-        emailBody.put("subject", "You've been invited to join " + cubeName);
-        emailBody.put("html", buildInvitationEmailHtml(invitationCode, cubeName));
-
-        HttpEntity<String> request = new HttpEntity<>(emailBody.toString(), headers);
-
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    resendApiUrl,
-                    request,
-                    String.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                System.out.println("✅ Email sent successfully to: " + email);
-            } else {
-                System.err.println("❌ Failed to send email: " + response.getBody());
-                throw new RuntimeException("Email sending failed");
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error sending email to " + email + ": " + e.getMessage());
-            throw new RuntimeException("Email service error: " + e.getMessage());
-        }
+    @Transactional
+    public void sendInvitationEmail(UUID invitationId, String email, String invitationCode, String cubeName, UUID invitedBy) {
+        queue("invitation:" + invitationId, email,
+                "You've been invited to join " + cubeName,
+                buildInvitationEmailHtml(invitationCode, cubeName));
     }
 
     @Override
+    @Transactional
     public void sendWinnerNotificationEmails(Cube cube, CubeMember winner, BigDecimal payoutAmount, Integer cycleNumber) {
-        try {
-            // 1. Get all members with contact info in ONE query ✅
-            List<MemberWithContact> members = cubeMemberRepository.findMembersWithContactInfo(cube.getCubeId());
-
-            // 2. Find winner info
-            MemberWithContact winnerInfo = members.stream()
-                    .filter(m -> m.getUserId().equals(winner.getUserId()))
-                    .findFirst()
-                    .orElse(null);
-
-            String winnerEmail = winnerInfo != null ? winnerInfo.getEmail() : null;
-            String fullName = winnerInfo != null ? winnerInfo.getFullName() : "";
-
-            // Use name if available, otherwise use email, otherwise use User ID
-            String winnerName;
-            if (fullName != null && !fullName.trim().isEmpty()) {
-                winnerName = fullName;
-            } else if (winnerEmail != null && !winnerEmail.isEmpty()) {
-                winnerName = winnerEmail;
-            } else {
-                winnerName = "User " + winner.getUserId().toString().substring(0, 8);
-            }
-
-            String subject = "🎉 " + cube.getName() + " — Cycle " + cycleNumber + " Winner!";
-            String htmlBody = buildWinnerEmailHtml(cube, winnerName, payoutAmount, cycleNumber);
+        // 1. Get all members with contact info in ONE query ✅
+        List<MemberWithContact> members = cubeMemberRepository.findMembersWithContactInfo(cube.getCubeId());
+
+        // 2. Find winner info
+        MemberWithContact winnerInfo = members.stream()
+                .filter(m -> m.getUserId().equals(winner.getUserId()))
+                .findFirst()
+                .orElse(null);
+
+        String winnerEmail = winnerInfo != null ? winnerInfo.getEmail() : null;
+        String fullName = winnerInfo != null ? winnerInfo.getFullName() : "";
+
+        // Use name if available, otherwise use email, otherwise use User ID
+        String winnerName;
+        if (fullName != null && !fullName.trim().isEmpty()) {
+            winnerName = fullName;
+        } else if (winnerEmail != null && !winnerEmail.isEmpty()) {
+            winnerName = winnerEmail;
+        } else {
+            winnerName = "User " + winner.getUserId().toString().substring(0, 8);
+        }
 
-            // 3. Send emails to all members
-            int emailsSent = 0;
-            String resendApiUrl = "https://api.resend.com/emails";
+        String subject = "🎉 " + cube.getName() + " — Cycle " + cycleNumber + " Winner!";
+        String htmlBody = buildWinnerEmailHtml(cube, winnerName, payoutAmount, cycleNumber);
+        String cycleKey = cube.getCubeId() + ":" + cycleNumber;
 
-            for (MemberWithContact member : members) {
-                String email = member.getEmail();
+        // 3. Queue emails to all members
+        int emailsQueued = 0;
 
-                if (email == null || email.isBlank()) {
-                    System.out.println("⚠️ Skipping member " + member.getMemberId() + " - no email found");
-                    continue;
-                }
+        for (MemberWithContact member : members) {
+            String email = member.getEmail();
 
-                try {
-                    sendEmail(resendApiUrl, email, subject, htmlBody);
-                    emailsSent++;
-                } catch (Exception e) {
-                    System.err.println("❌ Failed to send email to " + email + ": " + e.getMessage());
-                }
+            if (email == null || email.isBlank()) {
+                System.out.println("⚠️ Skipping member " + member.getMemberId() + " - no email found");
+                continue;
             }
 
-            // 4. Send admin notification
-            sendAdminNotificationEmail(resendApiUrl, cube, winnerName, winnerEmail, payoutAmount, cycleNumber, winner.getMemberId(), winner.getUserId());
-
-            System.out.println("✅ Winner emails sent for cube " + cube.getName() +
-                    " (" + emailsSent + "/" + members.size() + " members notified)");
-
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send winner emails: " + e.getMessage());
-            e.printStackTrace();
+            queue("winner:" + cycleKey + ":" + member.getMemberId(), email, subject, htmlBody);
+            emailsQueued++;
         }
-    }
-
-    /**
-     * Helper method to send email via Resend API
-     */
-    private void sendEmail(String apiUrl, String to, String subject, String html) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", "Bearer " + resendApiKey);
-
-        JSONObject emailBody = new JSONObject();
-        emailBody.put("from", fromEmail);
-        emailBody.put("to", to);
-        emailBody.put("subject", subject);
-        emailBody.put("html", html);
 
-        HttpEntity<String> request = new HttpEntity<>(emailBody.toString(), headers);
+        // 4. Queue admin notification for payout review
+        String adminSubject = "🔔 Cube Payout Review — " + cube.getName() + " (Cycle " + cycleNumber + ")";
+        String adminHtml = buildAdminEmailHtml(cube, winnerName, winnerEmail, payoutAmount, cycleNumber, winner.getMemberId(), winner.getUserId());
+        queue("winner-review:" + cycleKey, adminEmail, adminSubject, adminHtml);
 
-        ResponseEntity<String> response = restTemplate.postForEntity(apiUrl, request, String.class);
-
-        if (!response.getStatusCode().is2xxSuccessful()) {
-            throw new RuntimeException("Failed to send email: " + response.getBody());
-        }
+        System.out.println("✅ Winner emails queued for cube " + cube.getName() +
+                " (" + emailsQueued + "/" + members.size() + " members)");
     }
 
     /**
-     * Send admin notification for payout review
+     * Add an email to the outbox in the caller's transaction. The dedup key identifies the
+     * logical email, so queuing the same one twice (e.g. a re-run readiness check) is a no-op.
+     * Keys are built from IDs only, never from addresses, so they stay well within dedup_key.
      */
-    private void sendAdminNotificationEmail(String apiUrl, Cube cube, String winnerName, String winnerEmail, BigDecimal payoutAmount, Integer cycleNumber, UUID memberId, UUID userId) {
-        try {
-            String subject = "🔔 Cube Payout Review — " + cube.getName() + " (Cycle " + cycleNumber + ")";
-            String htmlBody = buildAdminEmailHtml(cube, winnerName, winnerEmail, payoutAmount, cycleNumber, memberId, userId);
-
-            sendEmail(apiUrl, adminEmail, subject, htmlBody);
-            System.out.println("✅ Admin notification sent for cube " + cube.getName());
-
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send admin notification: " + e.getMessage());
+    private void queue(String dedupKey, String to, String subject, String html) {
+        if (outboxRepository.enqueue(dedupKey, to, subject, html) > 0) {
+            eventPublisher.publishEvent(new EmailQueuedEvent());
+        } else {
+            System.out.println("ℹ️ Email " + dedupKey + " already queued, skipping");
         }
     }
 
@@ -499,87 +441,84 @@ public class EmailServiceImpl implements EmailService {
     }
 
     @Override
+    @Transactional
     public void checkAndSendCubeReadyEmails(UUID cubeId) {
-        try {
-            // 1. Get the cube
-            Cube cube = cubeRepository.findById(cubeId).orElse(null);
-            if (cube == null) {
-                System.out.println("⚠️ Cube not found: " + cubeId);
-                return;
-            }
+        // 1. Get the cube
+        Cube cube = cubeRepository.findById(cubeId).orElse(null);
+        if (cube == null) {
+            System.out.println("⚠️ Cube not found: " + cubeId);
+            return;
+        }
 
-            // 2. Only check if cube is still in draft status (status_id = 1)
-            if (cube.getStatusId() == null || cube.getStatusId() != 1) {
-                System.out.println("⚠️ Cube is not in draft status, skipping readiness check");
-                return;
-            }
+        // 2. Only check if cube is still in draft status (status_id = 1)
+        if (!CubeStatusId.DRAFT.is(cube.getStatusId())) {
+            System.out.println("⚠️ Cube is not in draft status, skipping readiness check");
+            return;
+        }
 
-            // 3. Check if expected number of members is set
-            Integer expectedMembers = cube.getNumberofmembers();
-            if (expectedMembers == null) {
-                System.out.println("⚠️ Cube has no expected member count set");
-                return;
-            }
+        // 3. Check if expected number of members is set
+        Integer expectedMembers = cube.getNumberofmembers();
+        if (expectedMembers == null) {
+            System.out.println("⚠️ Cube has no expected member count set");
+            return;
+        }
 
-            // 4. Get all members
-            List<CubeMember> members = cubeMemberRepository.findByCubeId(cubeId);
-            int actualMemberCount = members.size();
+        // 4. Get all members
+        List<CubeMember> members = cubeMemberRepository.findByCubeId(cubeId);
+        int actualMemberCount = members.size();
 
-            // 5. Check if member count matches expected
-            if (actualMemberCount < expectedMembers) {
-                System.out.println("ℹ️ Cube not ready: " + actualMemberCount + "/" + expectedMembers + " members joined");
-                return;
-            }
+        // 5. Check if member count matches expected
+        if (actualMemberCount < expectedMembers) {
+            System.out.println("ℹ️ Cube not ready: " + actualMemberCount + "/" + expectedMembers + " members joined");
+            return;
+        }
+
+        // 6. Check if all members have paid (status_id = 2 means "paid")
+        boolean allPaid = members.stream()
+                .allMatch(m -> MemberStatusId.PAID.is(m.getStatusId()));
+        
+        if (!allPaid) {
+            long paidCount = members.stream()
+                    .filter(m -> MemberStatusId.PAID.is(m.getStatusId()))
+                    .count();
+            System.out.println("ℹ️ Cube not ready: Only " + paidCount + "/" + actualMemberCount + " members have paid");
+            return;
+        }
+
+        // 7. Cube is ready! Queue emails
+        System.out.println("✅ Cube is ready: " + cube.getName() + " - Queuing ready emails...");
 
-            // 6. Check if all members have paid (status_id = 2 means "paid")
-            boolean allPaid = members.stream()
-                    .allMatch(m -> m.getStatusId() != null && m.getStatusId() == 2);
-            
-            if (!allPaid) {
-                long paidCount = members.stream()
-                        .filter(m -> m.getStatusId() != null && m.getStatusId() == 2)
-                        .count();
-                System.out.println("ℹ️ Cube not ready: Only " + paidCount + "/" + actualMemberCount + " members have paid");
-                return;
+        // Get all member contact info
+        List<MemberWithContact> membersWithContact = cubeMemberRepository.findMembersWithContactInfo(cubeId);
+
+        // Queue for all members
+        for (MemberWithContact member : membersWithContact) {
+            String email = member.getEmail();
+            if (email == null || email.isBlank()) {
+                System.out.println("⚠️ Skipping member " + member.getMemberId() + " - no email found");
+                continue;
             }
 
-            // 7. Cube is ready! Send emails
-            System.out.println("✅ Cube is ready: " + cube.getName() + " - Sending ready emails...");
-            
-            String resendApiUrl = "https://api.resend.com/emails";
-            
-            // Get all member contact info
-            List<MemberWithContact> membersWithContact = cubeMemberRepository.findMembersWithContactInfo(cubeId);
-            
-            // Send to all members
-            for (MemberWithContact member : membersWithContact) {
-                boolean isAdmin = member.getRoleId() != null && member.getRoleId() == 1;
-                
-                if (isAdmin) {
-                    // Send admin email
-                    String adminSubject = "🎉 " + cube.getName() + " is ready to start!";
-                    String adminHtml = buildCubeReadyAdminEmail(cube, members.size());
-                    sendEmail(resendApiUrl, member.getEmail(), adminSubject, adminHtml);
-                    System.out.println("✅ Admin ready email sent to: " + member.getEmail());
-                } else {
-                    // Send member email
-                    String memberSubject = "🎉 " + cube.getName() + " is ready!";
-                    String memberHtml = buildCubeReadyMemberEmail(cube, members.size());
-                    sendEmail(resendApiUrl, member.getEmail(), memberSubject, memberHtml);
-                    System.out.println("✅ Member ready email sent to: " + member.getEmail());
-                }
+            boolean isAdmin = RoleId.ADMIN.is(member.getRoleId());
+            String dedupKey = "cube-ready:" + cubeId + ":" + member.getMemberId();
+
+            if (isAdmin) {
+                // Admin email
+                String adminSubject = "🎉 " + cube.getName() + " is ready to start!";
+                String adminHtml = buildCubeReadyAdminEmail(cube, members.size());
+                queue(dedupKey, email, adminSubject, adminHtml);
+            } else {
+                // Member email
+                String memberSubject = "🎉 " + cube.getName() + " is ready!";
+                String memberHtml = buildCubeReadyMemberEmail(cube, members.size());
+                queue(dedupKey, email, memberSubject, memberHtml);
             }
-            
-            // Send to reviewer (admin email from config)
-            String reviewerSubject = "🔔 Cube Ready for Review: " + cube.getName();
-            String reviewerHtml = buildCubeReadyReviewerEmail(cube, members.size());
-            sendEmail(resendApiUrl, adminEmail, reviewerSubject, reviewerHtml);
-            System.out.println("✅ Reviewer email sent to: " + adminEmail);
-            
-        } catch (Exception e) {
-            System.err.println("❌ Error checking/sending cube ready emails: " + e.getMessage());
-            e.printStackTrace();
         }
+
+        // Reviewer (admin email from config)
+        String reviewerSubject = "🔔 Cube Ready for Review: " + cube.getName();
+        String reviewerHtml = buildCubeReadyReviewerEmail(cube, members.size());
+        queue("cube-ready-review:" + cubeId, adminEmail, reviewerSubject, reviewerHtml);
     }
 
     /**
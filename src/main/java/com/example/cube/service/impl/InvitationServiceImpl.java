@@ -8,11 +8,16 @@ import com.example.cube.dto.response.JoinCubeResponse;
 import com.example.cube.model.Cube;
 import com.example.cube.model.CubeInvitation;
 import com.example.cube.model.CubeMember;
+import com.example.cube.reference.InvitationStatusId;
+import com.example.cube.reference.RoleId;
 import com.example.cube.repository.CubeInvitationRepository;
 import com.example.cube.repository.CubeMemberRepository;
 import com.example.cube.repository.CubeRepository;
 import com.example.cube.repository.UserDetailsRepository;
+import com.example.cube.security.MembershipIndex;
+import com.example.cube.service.CubeActivityRecorder;
 import com.example.cube.service.EmailService;
+import com.example.cube.service.InvitationCodeAllocator;
 import com.example.cube.service.InvitationService;
 import com.example.cube.service.supabass.SupabaseUserLookupService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,19 +39,28 @@ public class InvitationServiceImpl implements InvitationService {
     private final SupabaseUserLookupService userLookupService;
     private final EmailService emailService;
     private final UserDetailsRepository userDetailsRepository;
+    private final CubeActivityRecorder activityRecorder;
+    private final InvitationCodeAllocator invitationCodeAllocator;
+    private final MembershipIndex membershipIndex;
 
     @Autowired
     public InvitationServiceImpl(CubeInvitationRepository invitationRepository,
                                  CubeMemberRepository cubeMemberRepository,
                                  CubeRepository cubeRepository,
                                  SupabaseUserLookupService userLookupService,
-                                 EmailService emailService, UserDetailsRepository userDetailsRepository) {
+                                 EmailService emailService, UserDetailsRepository userDetailsRepository,
+                                 CubeActivityRecorder activityRecorder,
+                                 InvitationCodeAllocator invitationCodeAllocator,
+                                 MembershipIndex membershipIndex) {
         this.invitationRepository = invitationRepository;
         this.cubeMemberRepository = cubeMemberRepository;
         this.cubeRepository = cubeRepository;
         this.userLookupService = userLookupService;
         this.emailService = emailService;
         this.userDetailsRepository = userDetailsRepository;
+        this.activityRecorder = activityRecorder;
+        this.invitationCodeAllocator = invitationCodeAllocator;
+        this.membershipIndex = membershipIndex;
     }
 
     @Override
@@ -58,10 +72,9 @@ public class InvitationServiceImpl implements InvitationService {
                 .orElseThrow(() -> new RuntimeException("Cube not found"));
 
         // 2. ✅ Validate inviter is an ADMIN
-        CubeMember inviterMember = cubeMemberRepository.findByCubeIdAndUserId(cubeId, invitedBy)
-                .orElseThrow(() -> new RuntimeException("You are not a member of this cube"));
+        MembershipIndex.Membership inviterMember = membershipIndex.requireMember(cubeId, invitedBy);
         
-        if (inviterMember.getRoleId() != 1) {
+        if (!RoleId.ADMIN.is(inviterMember.roleId())) {
             throw new RuntimeException("Only admins can invite members to this cube");
         }
 
@@ -94,7 +107,7 @@ public class InvitationServiceImpl implements InvitationService {
                 .orElseThrow(() -> new RuntimeException("Cube not found"));
 
         // 2. Validate user has permission
-        if (!cubeMemberRepository.existsByCubeIdAndUserId(cubeId, addedBy)) {
+        if (!membershipIndex.isMember(cubeId, addedBy)) {
             throw new RuntimeException("You don't have permission to add members to this cube");
         }
 
@@ -132,8 +145,9 @@ public class InvitationServiceImpl implements InvitationService {
                 member.setCubeId(cubeId);
                 member.setUserId(userId);
                 // Enforce default member role (2)
-                member.setRoleId(2);
+                member.setRoleId(RoleId.MEMBER.id());
                 cubeMemberRepository.save(member);
+                activityRecorder.memberJoined(cube, member);
 
                 results.put(userId.toString(), "added");
 
@@ -159,9 +173,17 @@ public class InvitationServiceImpl implements InvitationService {
     @Override
     @Transactional
     public JoinCubeResponse joinCubeByCode(String invitationCode, UUID userId) {
-        // 1. Find cube by invitation code
-        Cube cube = cubeRepository.findByInvitationCode(invitationCode.toUpperCase())
-                .orElseThrow(() -> new RuntimeException("Invalid invitation code"));
+        // 1. Find cube by invitation code (by primary key when the code is cached)
+        String code = invitationCode.toUpperCase();
+        UUID cachedCubeId = invitationCodeAllocator.cachedCubeId(code);
+        Cube cube = (cachedCubeId != null
+                ? cubeRepository.findById(cachedCubeId)
+                : cubeRepository.findByInvitationCode(code))
+                .orElseThrow(() -> {
+                    invitationCodeAllocator.forget(code);
+                    return new RuntimeException("Invalid invitation code");
+                });
+        invitationCodeAllocator.remember(code, cube.getCubeId());
 
         // 2. Check if already a member
         if (cubeMemberRepository.existsByCubeIdAndUserId(cube.getCubeId(), userId)) {
@@ -183,8 +205,9 @@ public class InvitationServiceImpl implements InvitationService {
         CubeMember member = new CubeMember();
         member.setCubeId(cube.getCubeId());
         member.setUserId(userId);
-        member.setRoleId(2); // Regular member role
+        member.setRoleId(RoleId.MEMBER.id());
         cubeMemberRepository.save(member);
+        activityRecorder.memberJoined(cube, member);
 
         // 5. ✅ Update invitation record (mark as accepted)
         updateInvitationRecordForUser(cube.getCubeId(), userId);
@@ -243,9 +266,9 @@ public class InvitationServiceImpl implements InvitationService {
         CubeInvitation invitation = new CubeInvitation();
         invitation.setCubeId(cubeId);
         invitation.setEmail(email);
-        invitation.setStatusId(1);  // pending
+        invitation.setStatusId(InvitationStatusId.PENDING.id());
         invitation.setInvitedBy(invitedBy);
-        invitation.setRoleId(2);  // Enforce default member role
+        invitation.setRoleId(RoleId.MEMBER.id());  // Enforce default member role
 
         // ✅ REMOVED: Don't pre-populate inviteeId - will be set when they join
         // inviteeId stays NULL until user creates account and joins
@@ -259,14 +282,10 @@ public class InvitationServiceImpl implements InvitationService {
         // Save to database
         invitationRepository.save(invitation);
 
-        // 4. Send email with invitation code
-        try {
-            emailService.sendInvitationEmail(email, cube.getInvitationCode(),
-                    cube.getName(), invitedBy);
-            return "invited";
-        } catch (Exception e) {
-            return "invited_email_failed";
-        }
+        // 4. Queue email with invitation code (sent after commit)
+        emailService.sendInvitationEmail(invitation.getInvitationId(), email, cube.getInvitationCode(),
+                cube.getName(), invitedBy);
+        return "invited";
     }
 
     /**
@@ -285,7 +304,7 @@ public class InvitationServiceImpl implements InvitationService {
             List<CubeInvitation> invitations = invitationRepository.findByCubeIdAndEmailAndStatusId(
                     cubeId,
                     email,
-                    1  // pending status
+                    InvitationStatusId.PENDING.id()
             );
 
             if (invitations.isEmpty()) {
@@ -295,7 +314,7 @@ public class InvitationServiceImpl implements InvitationService {
 
             // Mark all matching invitations as accepted
             for (CubeInvitation invitation : invitations) {
-                invitation.setStatusId(2); // accepted
+                invitation.setStatusId(InvitationStatusId.ACCEPTED.id());
                 invitation.setAcceptedAt(LocalDateTime.now());
                 invitation.setInviteeId(userId);
                 invitationRepository.save(invitation);
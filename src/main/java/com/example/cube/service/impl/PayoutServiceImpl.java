@@ -3,9 +3,12 @@ package com.example.cube.service.impl;
 import com.example.cube.model.CubeMember;
 import com.example.cube.model.Transaction;
 import com.example.cube.model.UserDetails;
+import com.example.cube.reference.TransactionStatusId;
+import com.example.cube.reference.TransactionTypeId;
 import com.example.cube.repository.CubeMemberRepository;
 import com.example.cube.repository.PaymentTransactionRepository;
 import com.example.cube.repository.UserDetailsRepository;
+import com.example.cube.service.LedgerService;
 import com.example.cube.service.PayoutService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
@@ -31,14 +34,17 @@ public class PayoutServiceImpl implements PayoutService {
     private final UserDetailsRepository userDetailsRepository;
     private final PaymentTransactionRepository paymentTransactionRepository;
     private final CubeMemberRepository cubeMemberRepository;
+    private final LedgerService ledgerService;
 
     @Autowired
     public PayoutServiceImpl(UserDetailsRepository userDetailsRepository,
                              PaymentTransactionRepository paymentTransactionRepository,
-                             CubeMemberRepository cubeMemberRepository) {
+                             CubeMemberRepository cubeMemberRepository,
+                             LedgerService ledgerService) {
         this.userDetailsRepository = userDetailsRepository;
         this.paymentTransactionRepository = paymentTransactionRepository;
         this.cubeMemberRepository = cubeMemberRepository;
+        this.ledgerService = ledgerService;
     }
     @Override
     @Transactional
@@ -138,8 +144,8 @@ public class PayoutServiceImpl implements PayoutService {
             transaction.setUserId(winnerId);
             transaction.setMemberId(member.getMemberId());
             transaction.setCubeId(cubeId);
-            transaction.setTypeId(2); // Type: PAYOUT
-            transaction.setStatusId(2); // Status: COMPLETED
+            transaction.setTypeId(TransactionTypeId.PAYOUT.id());
+            transaction.setStatusId(TransactionStatusId.COMPLETED.id());
             transaction.setAmount(amount);
             transaction.setCycleNumber(cycleNumber);
             transaction.setStripeTransferId(transfer.getId());
@@ -147,6 +153,7 @@ public class PayoutServiceImpl implements PayoutService {
             transaction.setProcessedAt(LocalDateTime.now());
 
             Transaction saved = paymentTransactionRepository.save(transaction);
+            ledgerService.transactionRecorded(saved);
 
             // 6. Update member payout status
             member.setHasReceivedPayout(true);
@@ -207,13 +214,14 @@ public class PayoutServiceImpl implements PayoutService {
         transaction.setUserId(winnerId);
         transaction.setMemberId(member.getMemberId());
         transaction.setCubeId(cubeId);
-        transaction.setTypeId(2); // Type: PAYOUT
-        transaction.setStatusId(3); // Status: FAILED
+        transaction.setTypeId(TransactionTypeId.PAYOUT.id());
+        transaction.setStatusId(TransactionStatusId.FAILED.id());
         transaction.setAmount(amount);
         transaction.setCycleNumber(cycleNumber);
         transaction.setFailureReason(failureReason);
 
         Transaction saved = paymentTransactionRepository.save(transaction);
+        ledgerService.transactionRecorded(saved);
 
         System.out.println("❌ Failed transaction recorded: " + saved.getPaymentId());
 
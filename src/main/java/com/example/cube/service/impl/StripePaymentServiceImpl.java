@@ -1,9 +1,16 @@
 package com.example.cube.service.impl;
 
 import com.example.cube.dto.response.PaymentIntentResponse;
+import com.example.cube.event.CubeDueTimeChangedEvent;
 import com.example.cube.model.*;
+import com.example.cube.reference.CubeStatusId;
+import com.example.cube.reference.MemberStatusId;
+import com.example.cube.reference.TransactionStatusId;
+import com.example.cube.reference.TransactionTypeId;
 import com.example.cube.repository.*;
+import com.example.cube.service.CubeActivityRecorder;
 import com.example.cube.service.EmailService;
+import com.example.cube.service.LedgerService;
 import com.example.cube.service.StripePaymentService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
@@ -18,6 +25,7 @@ import com.stripe.net.RequestOptions;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,6 +56,15 @@ public class StripePaymentServiceImpl implements StripePaymentService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CubeActivityRecorder activityRecorder;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PostConstruct
     public void init() {
         Stripe.apiKey = stripeApiKey;
@@ -79,7 +96,8 @@ public class StripePaymentServiceImpl implements StripePaymentService {
         // Check if payment already made for this cycle
         boolean alreadyPaid = paymentTransactionRepository
                 .existsByCubeIdAndMemberIdAndCycleNumberAndTypeIdAndStatusId(
-                        cubeId, memberId, cycleNumber, 1, 2);
+                        cubeId, memberId, cycleNumber,
+                        TransactionTypeId.PAYMENT.id(), TransactionStatusId.COMPLETED.id());
 
         if (alreadyPaid) {
             throw new RuntimeException("Payment already recorded for this cycle");
@@ -197,29 +215,33 @@ public class StripePaymentServiceImpl implements StripePaymentService {
             transaction.setStripePaymentIntentId(paymentIntentId);
             transaction.setAmount(new BigDecimal(paymentIntent.getAmount()).divide(new BigDecimal("100")));
             transaction.setCycleNumber(cycleNumber);
-            transaction.setTypeId(1);
-            transaction.setStatusId(2);
+            transaction.setTypeId(TransactionTypeId.PAYMENT.id());
+            transaction.setStatusId(TransactionStatusId.COMPLETED.id());
             transaction.setCreatedAt(LocalDateTime.now());
             transaction.setProcessedAt(LocalDateTime.now());
 
             paymentTransactionRepository.save(transaction);
+            activityRecorder.paymentRecorded(cube, transaction);
+            ledgerService.transactionRecorded(transaction);
 
-            // Update totals
-            cube.setTotalAmountCollected(
-                    cube.getTotalAmountCollected().add(transaction.getAmount())
-            );
-            cubeRepository.save(cube);
+            // Update totals (atomic increment, safe against concurrent webhooks)
+            cubeRepository.incrementTotalAmountCollected(cubeId, transaction.getAmount());
 
             // Update member status
             CubeMember member = cubeMemberRepository.findById(memberId).orElse(null);
             if (member != null) {
-                member.setStatusId(2);
+                member.setStatusId(MemberStatusId.PAID.id());
                 cubeMemberRepository.save(member);
                 System.out.println("✅ Member " + memberId + " marked as PAID for cycle " + cycleNumber);
             }
 
             System.out.println("✅ Card payment recorded: " + paymentIntentId);
 
+            // A due cube waiting on this payment can be processed right away
+            if (CubeStatusId.ACTIVE.is(cube.getStatusId())) {
+                eventPublisher.publishEvent(new CubeDueTimeChangedEvent(cubeId, cube.getNextPayoutDate()));
+            }
+
             // Check if cube is ready to start
             emailService.checkAndSendCubeReadyEmails(cubeId);
 
@@ -1,57 +1,73 @@
 package com.example.cube.service.impl;
 
+import com.example.cube.dto.KeysetCursor;
+import com.example.cube.dto.TransactionHistoryRow;
 import com.example.cube.dto.response.TransactionDTO;
 import com.example.cube.dto.response.TransactionHistoryResponse;
 import com.example.cube.mapper.TransactionMapper;
-import com.example.cube.model.Transaction;
+import com.example.cube.model.LedgerBalance;
 import com.example.cube.repository.PaymentTransactionRepository;
+import com.example.cube.service.LedgerService;
 import com.example.cube.service.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     @Autowired
     private PaymentTransactionRepository transactionRepository;
 
     @Autowired
     private TransactionMapper transactionMapper;
 
+    @Autowired
+    private LedgerService ledgerService;
+
     @Override
-    public TransactionHistoryResponse getUserTransactionHistory(UUID userId) {
+    @Transactional(readOnly = true)
+    public TransactionHistoryResponse getUserTransactionHistory(UUID userId, LocalDateTime before, UUID beforeId, int limit) {
+        int pageSize = KeysetCursor.pageSize(limit, MAX_HISTORY_PAGE_SIZE);
+        KeysetCursor cursor = KeysetCursor.of(before, beforeId);
 
-        // Get all transactions for this user (ordered by most recent)
-        List<Transaction> transactions = transactionRepository
-                .findByUserIdOrderByCreatedAtDesc(userId);
+        // One extra row tells us whether another page exists
+        List<TransactionHistoryRow> rows = transactionRepository
+                .findUserHistoryPage(userId, cursor.timestamp(), cursor.id(), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
 
-        // Convert to DTOs using mapper
-        List<TransactionDTO> transactionDTOs = transactions.stream()
+        // Convert to DTOs using mapper (cube name/currency already joined in)
+        List<TransactionDTO> transactionDTOs = rows.stream()
                 .map(transactionMapper::toDTO)
-                .collect(Collectors.toList());
+                .toList();
 
-        // Calculate total payments (completed only)
-        BigDecimal totalPayments = transactions.stream()
-                .filter(t -> t.getTypeId() == 1 && t.getStatusId() == 2) // PAYMENT + COMPLETED
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Totals over the whole history, from the maintained ledger row (no row = no transactions)
+        LedgerBalance balance = ledgerService.getUserBalance(userId).orElse(null);
 
-        // Calculate total payouts (completed only)
-        BigDecimal totalPayouts = transactions.stream()
-                .filter(t -> t.getTypeId() == 2 && t.getStatusId() == 2) // PAYOUT + COMPLETED
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new TransactionHistoryResponse(
+        TransactionHistoryResponse response = new TransactionHistoryResponse(
                 transactionDTOs,
-                totalPayments,
-                totalPayouts,
-                transactionDTOs.size()
+                balance != null ? balance.getContributed() : BigDecimal.ZERO,
+                balance != null ? balance.getPaidOut() : BigDecimal.ZERO,
+                balance != null ? balance.getTransactionCount().intValue() : 0
         );
+
+        response.setHasMore(hasMore);
+        if (hasMore) {
+            TransactionHistoryRow last = rows.get(rows.size() - 1);
+            response.setNextBefore(last.getCreatedAt());
+            response.setNextBeforeId(last.getPaymentId());
+        }
+
+        return response;
     }
 }
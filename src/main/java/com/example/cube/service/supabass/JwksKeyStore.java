@@ -0,0 +1,165 @@
+package com.example.cube.service.supabass;
+
+import com.example.cube.config.HttpClientConfig;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory copy of the project's JWKS (RS256 / ES256 signing keys).
+ *
+ * Verifiers are built once per kid when the key set is loaded and swapped in
+ * atomically, so token verification never waits on the network. The set is
+ * refreshed on a schedule, and early (at most once per minimum interval) when a
+ * token arrives with an unknown kid. The URL may be a file: URL or a stub
+ * endpoint for offline testing.
+ */
+@Component
+public class JwksKeyStore {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${supabase.jwt.jwks.url:${supabase.url}/auth/v1/.well-known/jwks.json}")
+    private String jwksUrl;
+
+    @Value("${supabase.jwt.jwks.enabled:true}")
+    private boolean enabled;
+
+    @Value("${supabase.jwt.jwks.min-refresh-interval-ms:30000}")
+    private long minRefreshIntervalMs;
+
+    private volatile Map<String, JWSVerifier> verifiersByKid = Map.of();
+    private volatile long lastRefreshAttempt;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwks-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public JwksKeyStore(@Qualifier(HttpClientConfig.SUPABASE) RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            requestRefresh();
+        }
+    }
+
+    /**
+     * Prebuilt verifier for the kid, or null if the key is not (yet) known.
+     * An unknown kid schedules a background refresh; the caller is never blocked.
+     */
+    public JWSVerifier verifierFor(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        JWSVerifier verifier = verifiersByKid.get(kid);
+        if (verifier == null && enabled
+                && System.currentTimeMillis() - lastRefreshAttempt >= minRefreshIntervalMs) {
+            requestRefresh();
+        }
+        return verifier;
+    }
+
+    public int getKeyCount() {
+        return verifiersByKid.size();
+    }
+
+    @Scheduled(fixedDelayString = "${supabase.jwt.jwks.refresh-ms:300000}",
+               initialDelayString = "${supabase.jwt.jwks.refresh-ms:300000}")
+    public void scheduledRefresh() {
+        if (enabled && refreshing.compareAndSet(false, true)) {
+            refresh();
+        }
+    }
+
+    private void requestRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            refresher.execute(this::refresh);
+        }
+    }
+
+    /**
+     * Reload the key set and swap in the new verifiers. Caller must hold the refreshing flag.
+     * On failure the previous keys stay in use.
+     */
+    private void refresh() {
+        try {
+            lastRefreshAttempt = System.currentTimeMillis();
+            JWKSet jwkSet = JWKSet.parse(fetch());
+
+            Map<String, JWSVerifier> verifiers = new HashMap<>();
+            for (JWK jwk : jwkSet.getKeys()) {
+                if (jwk.getKeyID() == null || KeyUse.ENCRYPTION.equals(jwk.getKeyUse())) {
+                    continue;
+                }
+                JWSVerifier verifier = buildVerifier(jwk);
+                if (verifier != null) {
+                    verifiers.put(jwk.getKeyID(), verifier);
+                }
+            }
+            verifiersByKid = Map.copyOf(verifiers);
+        } catch (Exception e) {
+            System.err.println("❌ Failed to refresh JWKS from " + jwksUrl + ": " + e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private String fetch() throws Exception {
+        if (jwksUrl.startsWith("file:")) {
+            return Files.readString(Path.of(URI.create(jwksUrl)), StandardCharsets.UTF_8);
+        }
+        String body = restTemplate.getForObject(jwksUrl, String.class);
+        if (body == null) {
+            throw new IllegalStateException("Empty JWKS response");
+        }
+        return body;
+    }
+
+    private static JWSVerifier buildVerifier(JWK jwk) {
+        try {
+            if (jwk instanceof RSAKey rsaKey) {
+                return new RSASSAVerifier(rsaKey);
+            }
+            if (jwk instanceof ECKey ecKey) {
+                return new ECDSAVerifier(ecKey);
+            }
+        } catch (JOSEException e) {
+            System.err.println("❌ Skipping unusable JWKS key " + jwk.getKeyID() + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+}
@@ -1,27 +1,66 @@
 package com.example.cube.service.supabass;
 
+import com.example.cube.cache.ExpiringCache;
+import com.example.cube.config.HttpClientConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Looks up Supabase users by email and by ID.
+ *
+ * Results are cached in both directions (email to userId and userId to email).
+ * Lookups that find no user are cached for a shorter time so a user who signs up
+ * shortly afterwards is picked up quickly; failed calls are never cached.
+ */
 @Service
 public class SupabaseUserLookupService {
 
+    // Cached marker for "Supabase has no such user"
+    private static final String NOT_FOUND = "";
+
     @Value("${supabase.url}")
     private String supabaseUrl;
 
     @Value("${supabase.key}")
     private String supabaseKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
+
+    private final ExpiringCache<String, String> userIdByEmail;
+    private final ExpiringCache<String, String> emailByUserId;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+
+    public SupabaseUserLookupService(@Qualifier(HttpClientConfig.SUPABASE) RestTemplate restTemplate,
+                                     @Value("${supabase.user-lookup.cache.max-entries:20000}") int maxEntries,
+                                     @Value("${supabase.user-lookup.cache.ttl-seconds:3600}") long ttlSeconds,
+                                     @Value("${supabase.user-lookup.cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        this.restTemplate = restTemplate;
+        this.userIdByEmail = new ExpiringCache<>(maxEntries);
+        this.emailByUserId = new ExpiringCache<>(maxEntries);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+    }
 
     /**
      * Get Supabase user ID by email
      */
     public String getUserIdByEmail(String email) {
+        String key = normalizeEmail(email);
+        String cached = userIdByEmail.get(key);
+        if (cached != null) {
+            return cached.equals(NOT_FOUND) ? null : cached;
+        }
+
         String url = supabaseUrl + "/auth/v1/admin/users?email=" + email;
 
         HttpHeaders headers = new HttpHeaders();
@@ -34,9 +73,20 @@ public class SupabaseUserLookupService {
         if (response.getStatusCode().is2xxSuccessful()) {
             JSONObject obj = new JSONObject(response.getBody());
             JSONArray users = obj.optJSONArray("users");
-            if (users != null && !users.isEmpty()) {
-                return users.getJSONObject(0).getString("id");
+            if (users != null) {
+                // Only trust a user whose email matches the one asked for
+                for (int i = 0; i < users.length(); i++) {
+                    JSONObject user = users.getJSONObject(i);
+                    String returnedEmail = user.optString("email", null);
+                    if (returnedEmail != null && normalizeEmail(returnedEmail).equals(key)) {
+                        String userId = user.getString("id");
+                        userIdByEmail.put(key, userId, ttl);
+                        emailByUserId.put(userId, returnedEmail, ttl);
+                        return userId;
+                    }
+                }
             }
+            userIdByEmail.put(key, NOT_FOUND, negativeTtl);
         }
         return null;
     }
@@ -45,6 +95,11 @@ public class SupabaseUserLookupService {
      * Get email by Supabase user ID (reverse lookup)
      */
     public String getEmailByUserId(String userId) {
+        String cached = emailByUserId.get(userId);
+        if (cached != null) {
+            return cached.equals(NOT_FOUND) ? null : cached;
+        }
+
         String url = supabaseUrl + "/auth/v1/admin/users/" + userId;
 
         HttpHeaders headers = new HttpHeaders();
@@ -58,12 +113,58 @@ public class SupabaseUserLookupService {
 
             if (response.getStatusCode().is2xxSuccessful()) {
                 JSONObject user = new JSONObject(response.getBody());
-                return user.optString("email", null);
+                String email = user.optString("email", null);
+                if (email == null || email.isEmpty()) {
+                    emailByUserId.put(userId, NOT_FOUND, negativeTtl);
+                    return null;
+                }
+                remember(userId, email);
+                return email;
             }
+        } catch (HttpClientErrorException.NotFound e) {
+            emailByUserId.put(userId, NOT_FOUND, negativeTtl);
         } catch (Exception e) {
             System.err.println("❌ Failed to lookup email for user " + userId + ": " + e.getMessage());
         }
 
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Record a known userId/email pair, e.g. from a sign-up/sign-in response or a profile fetch.
+     * Replaces whatever was cached for either side, including negative entries.
+     */
+    public void remember(String userId, String email) {
+        if (userId == null || email == null || email.isEmpty()) {
+            return;
+        }
+        String previous = emailByUserId.get(userId);
+        if (previous != null && !previous.equals(NOT_FOUND) && !normalizeEmail(previous).equals(normalizeEmail(email))) {
+            // Email changed; the old address must no longer resolve to this user
+            userIdByEmail.invalidate(normalizeEmail(previous));
+        }
+        emailByUserId.put(userId, email, ttl);
+        userIdByEmail.put(normalizeEmail(email), userId, ttl);
+    }
+
+    /**
+     * Drop everything cached for the user, e.g. after their Supabase account was updated or deleted.
+     */
+    public void invalidateUser(String userId) {
+        String email = emailByUserId.get(userId);
+        emailByUserId.invalidate(userId);
+        if (email != null && !email.equals(NOT_FOUND)) {
+            userIdByEmail.invalidate(normalizeEmail(email));
+        }
+    }
+
+    public long getCacheHits() { return userIdByEmail.hitCount() + emailByUserId.hitCount(); }
+
+    public long getCacheMisses() { return userIdByEmail.missCount() + emailByUserId.missCount(); }
+
+    public int getCacheSize() { return userIdByEmail.size() + emailByUserId.size(); }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
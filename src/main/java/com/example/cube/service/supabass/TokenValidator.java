@@ -1,55 +1,149 @@
 package com.example.cube.service.supabass;
 
-import com.nimbusds.jose.JWSObject;
+import com.example.cube.cache.ExpiringCache;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 
+/**
+ * Verifies Supabase access tokens.
+ *
+ * HS256 tokens are checked against the legacy shared secret (if configured),
+ * RS256 / ES256 tokens against the project's signing keys from {@link JwksKeyStore}.
+ */
 @Component
 public class TokenValidator {
 
-    @Value("${supabase.jwt.secret}")
+    private final JwksKeyStore jwksKeyStore;
+
+    @Value("${supabase.jwt.secret:}")
     private String jwtSecret;
 
+    @Value("${supabase.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // Null when the project has no shared secret configured
+    private MACVerifier macVerifier;
+
+    // Verified tokens keyed by SHA-256 digest, each entry expires at the token's exp claim
+    private ExpiringCache<String, VerifiedToken> verifiedTokens;
+
+    public TokenValidator(JwksKeyStore jwksKeyStore) {
+        this.jwksKeyStore = jwksKeyStore;
+    }
+
+    @PostConstruct
+    public void init() throws JOSEException {
+        if (jwtSecret != null && !jwtSecret.isBlank()) {
+            macVerifier = new MACVerifier(jwtSecret);
+        }
+        verifiedTokens = new ExpiringCache<>(cacheMaxEntries);
+    }
+
     public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
+    /**
+     * Verify the token and return its claims, or null if it is invalid or expired.
+     * Repeat tokens are served from the cache without parsing or signature work.
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = parseAndVerify(token);
+        if (verified != null) {
+            verifiedTokens.put(key, verified, verified.expiresAt());
+        }
+        return verified;
+    }
+
+    public long getCacheHits() { return verifiedTokens.hitCount(); }
+
+    public long getCacheMisses() { return verifiedTokens.missCount(); }
+
+    public int getCacheSize() { return verifiedTokens.size(); }
+
+    private VerifiedToken parseAndVerify(String token) {
         try {
             // Parse token
-            JWSObject jwsObject = JWSObject.parse(token);
             SignedJWT jwt = SignedJWT.parse(token);
 
             // 1. Verify signature
-            MACVerifier verifier = new MACVerifier(jwtSecret);
-            if (!jwsObject.verify(verifier)) {
-                return false;
+            JWSVerifier verifier = verifierFor(jwt.getHeader());
+            if (verifier == null || !jwt.verify(verifier)) {
+                return null;
             }
 
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            Date now = new Date();
+
             // 2. Check expiration
-            Date expirationTime = jwt.getJWTClaimsSet().getExpirationTime();
-            if (expirationTime == null || expirationTime.before(new Date())) {
-                return false;  // Token expired
+            Date expirationTime = claims.getExpirationTime();
+            if (expirationTime == null || expirationTime.before(now)) {
+                return null;  // Token expired
             }
 
             // 3. Check issued-at (optional but recommended)
-            Date issuedAt = jwt.getJWTClaimsSet().getIssueTime();
-            if (issuedAt != null && issuedAt.after(new Date())) {
-                return false;  // Token issued in future
+            Date issuedAt = claims.getIssueTime();
+            if (issuedAt != null && issuedAt.after(now)) {
+                return null;  // Token issued in future
             }
 
             // 4. Check audience (verify it's for authenticated users)
-            List<String> audience = jwt.getJWTClaimsSet().getAudience();
+            List<String> audience = claims.getAudience();
             if (audience == null || !audience.contains("authenticated")) {
-                return false;  // Wrong audience
+                return null;  // Wrong audience
             }
 
             // All checks passed
-            return true;
+            return new VerifiedToken(claims.getSubject(), List.copyOf(audience), expirationTime.toInstant());
 
         } catch (Exception e) {
-            return false;
+            return null;
+        }
+    }
+
+    private JWSVerifier verifierFor(JWSHeader header) {
+        JWSAlgorithm alg = header.getAlgorithm();
+        if (JWSAlgorithm.HS256.equals(alg)) {
+            return macVerifier;
+        }
+        if (JWSAlgorithm.RS256.equals(alg) || JWSAlgorithm.ES256.equals(alg)) {
+            return jwksKeyStore.verifierFor(header.getKeyID());
+        }
+        return null;  // Unsupported algorithm
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
-}
\ No newline at end of file
+}
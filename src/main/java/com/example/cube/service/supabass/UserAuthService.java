@@ -1,5 +1,6 @@
 package com.example.cube.service.supabass;
 
+import com.example.cube.config.HttpClientConfig;
 import com.example.cube.dto.request.auth.SignInAuthRequest;
 import com.example.cube.dto.request.auth.SignUpAuthRequest;
 import com.example.cube.dto.response.auth.SignInAuthResponse;
@@ -8,6 +9,7 @@ import com.example.cube.model.UserDetails;
 import com.example.cube.repository.UserDetailsRepository;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -31,7 +33,12 @@ public class UserAuthService {
     @Autowired
     private UserDetailsRepository userDetailsRepo;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private SupabaseUserLookupService userLookupService;
+
+    @Autowired
+    @Qualifier(HttpClientConfig.SUPABASE)
+    private RestTemplate restTemplate;
 
     /**
      * Sign up a new user in Supabase and save to local database
@@ -58,6 +65,7 @@ public class UserAuthService {
 
         // Save user to local database
         saveUserToLocalDB(userId, req);
+        userLookupService.remember(userId, req.getEmail());
 
         System.out.println("User created: " + userId);
 
@@ -81,6 +89,8 @@ public class UserAuthService {
             throw new RuntimeException("Failed to extract access token. Please confirm your email first.");
         }
 
+        userLookupService.remember(userId, req.getEmail());
+
         System.out.println("User signed in: " + userId);
 
         return new SignInAuthResponse(true, "Sign-in successful", userId, accessToken);
@@ -0,0 +1,10 @@
+package com.example.cube.service.supabass;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature and validity window have already been checked.
+ */
+public record VerifiedToken(String subject, List<String> audience, Instant expiresAt) {
+}
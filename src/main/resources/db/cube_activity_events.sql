@@ -0,0 +1,98 @@
+-- Append-only activity log behind GET /api/cubes/{cubeId}/activity and /api/cubes/my-activity.
+-- Run once against the Supabase database; the backfill is safe to re-run.
+
+CREATE TABLE IF NOT EXISTS public.cube_activity_events (
+    event_id      uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    cube_id       uuid        NOT NULL,
+    user_id       uuid        NOT NULL,
+    activity_type varchar(32) NOT NULL,   -- CUBE_CREATED, MEMBER_JOIN, PAYMENT, WINNER
+    source_id     uuid        NOT NULL,   -- cube_id / member_id / payment_id / winner_id of the source row
+    user_name     text,
+    cube_name     text,
+    amount        numeric,
+    cycle_number  integer,
+    occurred_at   timestamp   NOT NULL DEFAULT now(),
+    CONSTRAINT uq_cube_activity_events_source UNIQUE (activity_type, source_id)
+);
+
+-- One index range scan per feed page (keyset on occurred_at, event_id)
+CREATE INDEX IF NOT EXISTS idx_cube_activity_events_cube
+    ON public.cube_activity_events (cube_id, occurred_at DESC, event_id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_cube_activity_events_user
+    ON public.cube_activity_events (user_id, occurred_at DESC, event_id DESC);
+
+
+-- Backfill from existing rows. Display names follow UserDirectory.Names.displayName();
+-- users without a profile yet (no row, or the placeholder names) get NULL and are resolved when the feed is read.
+
+INSERT INTO public.cube_activity_events
+    (cube_id, user_id, activity_type, source_id, user_name, cube_name, occurred_at)
+SELECT c.cube_id, c.user_id, 'CUBE_CREATED', c.cube_id,
+       CASE
+           WHEN u.user_id IS NULL THEN NULL
+           WHEN u.first_name = 'Cube' AND u.last_name = 'Member' THEN NULL
+           WHEN u.first_name IS NOT NULL AND COALESCE(u.last_name, '') <> '' THEN u.first_name || ' ' || left(u.last_name, 1) || '.'
+           WHEN u.first_name IS NOT NULL THEN u.first_name
+           ELSE 'User'
+       END,
+       c.name, COALESCE(CAST(c.created_at AS timestamp), now())
+FROM public.cubes c
+LEFT JOIN public.user_details u ON u.user_id = c.user_id
+ON CONFLICT (activity_type, source_id) DO NOTHING;
+
+INSERT INTO public.cube_activity_events
+    (cube_id, user_id, activity_type, source_id, user_name, cube_name, occurred_at)
+SELECT m.cube_id, m.user_id, 'MEMBER_JOIN', m.member_id,
+       CASE
+           WHEN u.user_id IS NULL THEN NULL
+           WHEN u.first_name = 'Cube' AND u.last_name = 'Member' THEN NULL
+           WHEN u.first_name IS NOT NULL AND COALESCE(u.last_name, '') <> '' THEN u.first_name || ' ' || left(u.last_name, 1) || '.'
+           WHEN u.first_name IS NOT NULL THEN u.first_name
+           ELSE 'User'
+       END,
+       c.name, COALESCE(m.joined_at, now())
+FROM public.cube_members m
+JOIN public.cubes c ON c.cube_id = m.cube_id
+LEFT JOIN public.user_details u ON u.user_id = m.user_id
+ON CONFLICT (activity_type, source_id) DO NOTHING;
+
+INSERT INTO public.cube_activity_events
+    (cube_id, user_id, activity_type, source_id, user_name, cube_name, amount, cycle_number, occurred_at)
+SELECT t.cube_id, t.user_id, 'PAYMENT', t.payment_id,
+       CASE
+           WHEN u.user_id IS NULL THEN NULL
+           WHEN u.first_name = 'Cube' AND u.last_name = 'Member' THEN NULL
+           WHEN u.first_name IS NOT NULL AND COALESCE(u.last_name, '') <> '' THEN u.first_name || ' ' || left(u.last_name, 1) || '.'
+           WHEN u.first_name IS NOT NULL THEN u.first_name
+           ELSE 'User'
+       END,
+       c.name, t.amount, t.cycle_number, t.created_at
+FROM public.transactions t
+JOIN public.cubes c ON c.cube_id = t.cube_id
+LEFT JOIN public.user_details u ON u.user_id = t.user_id
+WHERE t.type_id = 1 AND t.status_id = 2
+ON CONFLICT (activity_type, source_id) DO NOTHING;
+
+INSERT INTO public.cube_activity_events
+    (cube_id, user_id, activity_type, source_id, user_name, cube_name, amount, cycle_number, occurred_at)
+SELECT w.cube_id, w.user_id, 'WINNER', w.winner_id,
+       CASE
+           WHEN u.user_id IS NULL THEN NULL
+           WHEN u.first_name = 'Cube' AND u.last_name = 'Member' THEN NULL
+           WHEN u.first_name IS NOT NULL AND COALESCE(u.last_name, '') <> '' THEN u.first_name || ' ' || left(u.last_name, 1) || '.'
+           WHEN u.first_name IS NOT NULL THEN u.first_name
+           ELSE 'User'
+       END,
+       c.name, w.payout_amount, w.cycle_number, w.selected_at
+FROM public.cycle_winners w
+JOIN public.cubes c ON c.cube_id = w.cube_id
+LEFT JOIN public.user_details u ON u.user_id = w.user_id
+ON CONFLICT (activity_type, source_id) DO NOTHING;
+
+
+-- Repair: names copied while a profile sync was still pending ("Cube M." placeholder)
+
+UPDATE public.cube_activity_events
+SET user_name = NULL
+WHERE user_name = 'Cube M.';
@@ -0,0 +1,6 @@
+-- Supports the scheduler's paged scan of due cubes (CubeRepository.findActiveCubesDuePage).
+-- Run once against the Supabase database.
+
+CREATE INDEX IF NOT EXISTS idx_cubes_active_next_payout
+    ON public.cubes (next_payout_date, cube_id)
+    WHERE status_id = 2;
@@ -0,0 +1,5 @@
+-- Backstop for cross-instance cycle processing: at most one winner per cube and cycle.
+-- Run once against the Supabase database (fails if duplicates already exist; resolve those first).
+
+ALTER TABLE public.cycle_winners
+    ADD CONSTRAINT uq_cycle_winners_cube_cycle UNIQUE (cube_id, cycle_number);
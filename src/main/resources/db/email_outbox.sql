@@ -0,0 +1,22 @@
+-- Transactional outbox for emails (winner, cube ready and invitation emails).
+-- Rows are written with the business change and sent afterwards by EmailOutboxDispatcher.
+-- Run once against the Supabase database.
+
+CREATE TABLE IF NOT EXISTS public.email_outbox (
+    message_id      uuid         PRIMARY KEY DEFAULT gen_random_uuid(),
+    dedup_key       varchar(255) NOT NULL UNIQUE,   -- one row per logical email, built from IDs; also the Resend Idempotency-Key
+    recipient       text         NOT NULL,
+    subject         text         NOT NULL,
+    html            text         NOT NULL,
+    status          varchar(16)  NOT NULL DEFAULT 'PENDING',   -- PENDING, SENT or FAILED
+    attempts        integer      NOT NULL DEFAULT 0,
+    next_attempt_at timestamptz  NOT NULL DEFAULT now(),
+    last_error      text,
+    created_at      timestamptz  NOT NULL DEFAULT now(),
+    sent_at         timestamptz
+);
+
+-- Dispatcher claim query: due pending messages in order
+CREATE INDEX IF NOT EXISTS idx_email_outbox_pending
+    ON public.email_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
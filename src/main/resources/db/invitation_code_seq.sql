@@ -0,0 +1,9 @@
+-- Sequence behind InvitationCodeAllocator: each value maps to exactly one 6-character code.
+-- Run once against the Supabase database. MAXVALUE is 36^6 - 1; NO CYCLE so codes are never reused.
+
+CREATE SEQUENCE IF NOT EXISTS public.invitation_code_seq
+    AS bigint
+    MINVALUE 0
+    MAXVALUE 2176782335
+    START WITH 0
+    NO CYCLE;
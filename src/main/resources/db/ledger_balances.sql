@@ -0,0 +1,37 @@
+-- Running per-user and per-cube totals behind the transaction history and cube balance reads.
+-- Maintained by LedgerService in the same transaction as each transactions insert.
+-- Run once against the Supabase database; the backfill is safe to re-run.
+
+CREATE TABLE IF NOT EXISTS public.ledger_balances (
+    owner_type        varchar(8)  NOT NULL,   -- USER or CUBE
+    owner_id          uuid        NOT NULL,   -- user_id or cube_id
+    contributed       numeric     NOT NULL DEFAULT 0,   -- completed payments
+    paid_out          numeric     NOT NULL DEFAULT 0,   -- completed payouts
+    pending           numeric     NOT NULL DEFAULT 0,
+    failed            numeric     NOT NULL DEFAULT 0,
+    transaction_count bigint      NOT NULL DEFAULT 0,
+    updated_at        timestamp   NOT NULL DEFAULT now(),
+    PRIMARY KEY (owner_type, owner_id)
+);
+
+
+-- Backfill (same aggregate as LedgerBalanceRepository.insertFromTransactions)
+
+BEGIN;
+
+DELETE FROM public.ledger_balances;
+
+INSERT INTO public.ledger_balances
+    (owner_type, owner_id, contributed, paid_out, pending, failed, transaction_count, updated_at)
+SELECT owner_type, owner_id,
+       COALESCE(SUM(amount) FILTER (WHERE type_id = 1 AND status_id = 2), 0),
+       COALESCE(SUM(amount) FILTER (WHERE type_id = 2 AND status_id = 2), 0),
+       COALESCE(SUM(amount) FILTER (WHERE status_id = 1), 0),
+       COALESCE(SUM(amount) FILTER (WHERE status_id = 3), 0),
+       COUNT(*),
+       now()
+FROM public.transactions t
+CROSS JOIN LATERAL (VALUES ('USER', t.user_id), ('CUBE', t.cube_id)) AS o(owner_type, owner_id)
+GROUP BY owner_type, owner_id;
+
+COMMIT;
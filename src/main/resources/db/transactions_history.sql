@@ -0,0 +1,6 @@
+-- Indexes behind GET /api/transactions/my-history.
+-- Run once against the Supabase database.
+
+-- One index range scan per history page (keyset on created_at, payment_id)
+CREATE INDEX IF NOT EXISTS idx_transactions_user_history
+    ON public.transactions (user_id, created_at DESC, payment_id DESC);
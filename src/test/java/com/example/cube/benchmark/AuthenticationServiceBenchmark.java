@@ -0,0 +1,60 @@
+package com.example.cube.benchmark;
+
+import com.example.cube.repository.UserDetailsRepository;
+import com.example.cube.security.AuthenticationService;
+import com.example.cube.security.KnownUserCache;
+import com.example.cube.service.UserDetailsSyncService;
+import com.nimbusds.jose.JOSEException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuthenticationService#validateAndExtractUserId} against an in-memory
+ * user_details repository. "knownUser" is the steady state (token and user both
+ * cached); "profileLookup" forces the user_details check on every call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticationServiceBenchmark {
+
+    private AuthenticationService knownUserAuth;
+    private AuthenticationService lookupAuth;
+    private String header;
+    private String otherHeader;
+    private boolean flip;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        UserDetailsRepository repository = InMemoryUserDetailsRepository.create();
+        UserDetailsSyncService syncService = new UserDetailsSyncService(repository, event -> { });
+
+        knownUserAuth = new AuthenticationService(
+                TokenValidatorBenchmark.newValidator(10_000), syncService, new KnownUserCache(50_000, 600));
+        lookupAuth = new AuthenticationService(
+                TokenValidatorBenchmark.newValidator(10_000), syncService, new KnownUserCache(1, 600));
+
+        header = "Bearer " + BenchmarkTokens.sign(UUID.randomUUID());
+        otherHeader = "Bearer " + BenchmarkTokens.sign(UUID.randomUUID());
+
+        // First call creates the user_details rows
+        knownUserAuth.validateAndExtractUserId(header);
+        knownUserAuth.validateAndExtractUserId(otherHeader);
+    }
+
+    @Benchmark
+    public UUID knownUser() {
+        return knownUserAuth.validateAndExtractUserId(header);
+    }
+
+    @Benchmark
+    public UUID profileLookup() {
+        flip = !flip;
+        return lookupAuth.validateAndExtractUserId(flip ? header : otherHeader);
+    }
+}
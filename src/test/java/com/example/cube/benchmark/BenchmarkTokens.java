@@ -0,0 +1,44 @@
+package com.example.cube.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * HS256 tokens shaped like Supabase access tokens, signed with a fixed benchmark secret.
+ */
+final class BenchmarkTokens {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    private BenchmarkTokens() {
+    }
+
+    static String sign(UUID subject) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(subject.toString())
+                .audience("authenticated")
+                .issuer("https://example.supabase.co/auth/v1")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(1, ChronoUnit.HOURS)))
+                .claim("role", "authenticated")
+                .claim("email", "bench@example.com")
+                .build();
+        try {
+            SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+            jwt.sign(new MACSigner(SECRET));
+            return jwt.serialize();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.cube.benchmark;
+
+import com.example.cube.model.UserDetails;
+import com.example.cube.repository.UserDetailsRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed {@link UserDetailsRepository} double, so benchmarks measure the auth
+ * code rather than a database. Only the methods the auth path uses are supported.
+ */
+final class InMemoryUserDetailsRepository {
+
+    private InMemoryUserDetailsRepository() {
+    }
+
+    static UserDetailsRepository create() {
+        Map<UUID, UserDetails> rows = new ConcurrentHashMap<>();
+        return (UserDetailsRepository) Proxy.newProxyInstance(
+                UserDetailsRepository.class.getClassLoader(),
+                new Class<?>[] {UserDetailsRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(rows.get((UUID) args[0]));
+                    case "existsById" -> rows.containsKey((UUID) args[0]);
+                    case "save" -> {
+                        UserDetails details = (UserDetails) args[0];
+                        rows.put(details.getUser_id(), details);
+                        yield details;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserDetailsRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
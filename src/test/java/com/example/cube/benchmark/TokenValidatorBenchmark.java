@@ -0,0 +1,58 @@
+package com.example.cube.benchmark;
+
+import com.example.cube.service.supabass.JwksKeyStore;
+import com.example.cube.service.supabass.TokenValidator;
+import com.nimbusds.jose.JOSEException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TokenValidator#validateToken} with a warm cache (same token every call)
+ * and a cold one (cache holds a single entry, two tokens alternate), which
+ * measures full parsing plus signature verification.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenValidatorBenchmark {
+
+    private TokenValidator cachedValidator;
+    private TokenValidator uncachedValidator;
+    private String token;
+    private String otherToken;
+    private boolean flip;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        cachedValidator = newValidator(10_000);
+        uncachedValidator = newValidator(1);
+        token = BenchmarkTokens.sign(UUID.randomUUID());
+        otherToken = BenchmarkTokens.sign(UUID.randomUUID());
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return cachedValidator.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateUncached() {
+        flip = !flip;
+        return uncachedValidator.validateToken(flip ? token : otherToken);
+    }
+
+    static TokenValidator newValidator(int cacheMaxEntries) throws JOSEException {
+        // JWKS loading is never started: only HS256 tokens are benchmarked
+        TokenValidator validator = new TokenValidator(new JwksKeyStore(null));
+        ReflectionTestUtils.setField(validator, "jwtSecret", BenchmarkTokens.SECRET);
+        ReflectionTestUtils.setField(validator, "cacheMaxEntries", cacheMaxEntries);
+        validator.init();
+        return validator;
+    }
+}
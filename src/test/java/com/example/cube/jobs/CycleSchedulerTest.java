@@ -0,0 +1,89 @@
+package com.example.cube.jobs;
+
+import com.example.cube.dto.CubeDueTime;
+import com.example.cube.repository.CubeRepository;
+import com.example.cube.service.CycleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that a slow reconcile pass never holds the scheduler thread that
+ * every other @Scheduled job in the app shares.
+ */
+class CycleSchedulerTest {
+
+    private CubeRepository cubeRepository;
+    private CycleService cycleService;
+    private CycleScheduler cycleScheduler;
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    private final CountDownLatch cycleStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseCycle = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        cubeRepository = mock(CubeRepository.class);
+        cycleService = mock(CycleService.class);
+
+        UUID cubeId = UUID.randomUUID();
+        CubeDueTime due = new CubeDueTime() {
+            @Override
+            public UUID getCubeId() { return cubeId; }
+
+            @Override
+            public Instant getNextPayoutDate() { return Instant.now().minusSeconds(60); }
+        };
+        when(cubeRepository.findActiveCubesDuePage(any(), any(), any(), any())).thenReturn(List.of(due));
+
+        // The cycle blocks until the test lets it finish
+        doAnswer(invocation -> {
+            cycleStarted.countDown();
+            releaseCycle.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(cycleService).processCycle(eq(cubeId));
+
+        cycleScheduler = new CycleScheduler(cubeRepository, cycleService, new SimpleMeterRegistry(),
+                2, false, 60_000, 900_000, 200, 1000, 1000);
+
+        // Same shape as Spring's default: one thread for all @Scheduled jobs
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(1);
+        taskScheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseCycle.countDown();
+        taskScheduler.shutdown();
+        cycleScheduler.shutdown();
+    }
+
+    @Test
+    void slowReconcilePassDoesNotDelayOtherScheduledJobs() throws InterruptedException {
+        taskScheduler.execute(cycleScheduler::processReadyCubes);
+        assertTrue(cycleStarted.await(5, TimeUnit.SECONDS), "cycle should have started");
+
+        // Another @Scheduled job (e.g. JWKS refresh) still gets the scheduler thread
+        CountDownLatch otherJobRan = new CountDownLatch(1);
+        taskScheduler.execute(otherJobRan::countDown);
+
+        assertTrue(otherJobRan.await(2, TimeUnit.SECONDS),
+                "other scheduled job was blocked behind the reconcile pass");
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.cube.service.impl;
+
+import com.example.cube.model.Cube;
+import com.example.cube.model.CubeMember;
+import com.example.cube.model.CycleWinner;
+import com.example.cube.reference.CubeStatusId;
+import com.example.cube.reference.MemberStatusId;
+import com.example.cube.reference.ReferenceDataRegistry;
+import com.example.cube.repository.CubeMemberRepository;
+import com.example.cube.repository.CubeRepository;
+import com.example.cube.repository.CycleWinnerRepository;
+import com.example.cube.repository.PaymentTransactionRepository;
+import com.example.cube.service.CubeActivityRecorder;
+import com.example.cube.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that one processCycle call issues a fixed number of repository calls,
+ * however many members the cube has.
+ */
+class CycleServiceImplTest {
+
+    private static final int MEMBERS = 5;
+
+    private CubeRepository cubeRepository;
+    private CubeMemberRepository cubeMemberRepository;
+    private PaymentTransactionRepository paymentTransactionRepository;
+    private CycleWinnerRepository cycleWinnerRepository;
+    private CycleServiceImpl cycleService;
+
+    private UUID cubeId;
+    private Cube cube;
+    private List<CubeMember> members;
+
+    @BeforeEach
+    void setUp() {
+        cubeRepository = mock(CubeRepository.class);
+        cubeMemberRepository = mock(CubeMemberRepository.class);
+        paymentTransactionRepository = mock(PaymentTransactionRepository.class);
+        cycleWinnerRepository = mock(CycleWinnerRepository.class);
+        ReferenceDataRegistry referenceData = mock(ReferenceDataRegistry.class);
+        when(referenceData.duration(any())).thenReturn(Optional.of(new ReferenceDataRegistry.Duration(1, "WEEKLY", 7)));
+
+        cycleService = new CycleServiceImpl(cubeRepository, cubeMemberRepository, paymentTransactionRepository,
+                cycleWinnerRepository, mock(EmailService.class), mock(CubeActivityRecorder.class),
+                referenceData, mock(ApplicationEventPublisher.class));
+
+        cubeId = UUID.randomUUID();
+        cube = new Cube();
+        cube.setCubeId(cubeId);
+        cube.setName("Test cube");
+        cube.setStatusId(CubeStatusId.ACTIVE.id());
+        cube.setAmountPerCycle(new BigDecimal("100.00"));
+        cube.setNumberofmembers(MEMBERS);
+        cube.setDurationId(1);
+        cube.setStartDate(Instant.now().minus(7, ChronoUnit.DAYS));
+        cube.setNextPayoutDate(Instant.now().minusSeconds(1));
+
+        members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            CubeMember member = new CubeMember();
+            member.setMemberId(UUID.randomUUID());
+            member.setCubeId(cubeId);
+            member.setUserId(UUID.randomUUID());
+            member.setStatusId(MemberStatusId.PAID.id());
+            members.add(member);
+        }
+
+        when(cubeRepository.claimForCycleProcessing(cubeId)).thenReturn(Optional.of(cube));
+        when(cubeMemberRepository.findByCubeId(cubeId)).thenReturn(members);
+    }
+
+    @Test
+    void midRotationCycleLoadsOnceAndResetsMembersInOneUpdate() {
+        cube.setCurrentCycle(2);
+        when(cycleWinnerRepository.findByCubeIdOrderByCycleNumberAsc(cubeId)).thenReturn(List.of(winner(1, members.get(0))));
+        when(cubeMemberRepository.updateStatusIdByCubeId(cubeId, MemberStatusId.NOT_PAID.id())).thenReturn(MEMBERS);
+
+        cycleService.processCycle(cubeId);
+
+        verify(cubeRepository, times(1)).claimForCycleProcessing(cubeId);
+        verify(cubeRepository, times(1)).save(cube);
+        verify(cubeMemberRepository, times(1)).findByCubeId(cubeId);
+        verify(cubeMemberRepository, times(1)).updateStatusIdByCubeId(cubeId, MemberStatusId.NOT_PAID.id());
+        verify(cycleWinnerRepository, times(1)).findByCubeIdOrderByCycleNumberAsc(cubeId);
+        verify(cycleWinnerRepository, times(1)).save(any(CycleWinner.class));
+        verifyNoMoreInteractions(cubeRepository, cubeMemberRepository, cycleWinnerRepository, paymentTransactionRepository);
+
+        assertEquals(3, cube.getCurrentCycle());
+    }
+
+    @Test
+    void lastCycleCompletesCubeWithoutResettingMembers() {
+        cube.setCurrentCycle(MEMBERS);
+        List<CycleWinner> winners = new ArrayList<>();
+        for (int i = 0; i < MEMBERS - 1; i++) {
+            winners.add(winner(i + 1, members.get(i)));
+        }
+        when(cycleWinnerRepository.findByCubeIdOrderByCycleNumberAsc(cubeId)).thenReturn(winners);
+
+        cycleService.processCycle(cubeId);
+
+        verify(cubeRepository, times(1)).claimForCycleProcessing(cubeId);
+        verify(cubeRepository, times(1)).save(cube);
+        verify(cubeMemberRepository, times(1)).findByCubeId(cubeId);
+        verify(cycleWinnerRepository, times(1)).findByCubeIdOrderByCycleNumberAsc(cubeId);
+        verify(cycleWinnerRepository, times(1)).save(any(CycleWinner.class));
+        verifyNoMoreInteractions(cubeRepository, cubeMemberRepository, cycleWinnerRepository, paymentTransactionRepository);
+
+        assertEquals(CubeStatusId.COMPLETED.id(), cube.getStatusId());
+    }
+
+    @Test
+    void unpaidCycleOnlyReadsContext() {
+        cube.setCurrentCycle(1);
+        members.get(0).setStatusId(MemberStatusId.NOT_PAID.id());
+        when(cycleWinnerRepository.findByCubeIdOrderByCycleNumberAsc(cubeId)).thenReturn(List.of());
+
+        cycleService.processCycle(cubeId);
+
+        verify(cubeRepository, times(1)).claimForCycleProcessing(cubeId);
+        verify(cubeMemberRepository, times(1)).findByCubeId(cubeId);
+        verify(cycleWinnerRepository, times(1)).findByCubeIdOrderByCycleNumberAsc(cubeId);
+        verifyNoMoreInteractions(cubeRepository, cubeMemberRepository, cycleWinnerRepository, paymentTransactionRepository);
+    }
+
+    private CycleWinner winner(int cycleNumber, CubeMember member) {
+        CycleWinner winner = new CycleWinner();
+        winner.setCubeId(cubeId);
+        winner.setMemberId(member.getMemberId());
+        winner.setUserId(member.getUserId());
+        winner.setCycleNumber(cycleNumber);
+        return winner;
+    }
+}
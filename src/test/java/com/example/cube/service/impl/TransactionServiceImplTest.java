@@ -0,0 +1,111 @@
+package com.example.cube.service.impl;
+
+import com.example.cube.dto.TransactionHistoryRow;
+import com.example.cube.dto.response.TransactionDTO;
+import com.example.cube.dto.response.TransactionHistoryResponse;
+import com.example.cube.mapper.TransactionMapper;
+import com.example.cube.repository.PaymentTransactionRepository;
+import com.example.cube.service.LedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pages through a user's history against an in-memory stand-in for the keyset query and
+ * checks that a timestamp-only cursor never hands back the row it was taken from.
+ */
+class TransactionServiceImplTest {
+
+    private static final int ROWS = 7;
+    private static final int PAGE_SIZE = 2;
+
+    // Postgres compares uuids byte-wise (unsigned); UUID.compareTo is signed
+    private static final Comparator<UUID> PG_UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final Comparator<TransactionHistoryRow> NEWEST_FIRST = Comparator
+            .comparing(TransactionHistoryRow::getCreatedAt)
+            .thenComparing(TransactionHistoryRow::getPaymentId, PG_UUID_ORDER)
+            .reversed();
+
+    private final UUID userId = UUID.randomUUID();
+    private TransactionServiceImpl transactionService;
+
+    @BeforeEach
+    void setUp() {
+        List<TransactionHistoryRow> history = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < ROWS; i++) {
+            history.add(row(base.plusMinutes(i)));
+        }
+        history.sort(NEWEST_FIRST);
+
+        // Same predicate and order as findUserHistoryPage: (created_at, payment_id) < (:beforeTs, :beforeId)
+        PaymentTransactionRepository repository = mock(PaymentTransactionRepository.class);
+        when(repository.findUserHistoryPage(eq(userId), any(), any(), anyInt())).thenAnswer(invocation -> {
+            LocalDateTime beforeTs = invocation.getArgument(1);
+            UUID beforeId = invocation.getArgument(2);
+            int limit = invocation.getArgument(3);
+            return history.stream()
+                    .filter(r -> {
+                        int byTs = r.getCreatedAt().compareTo(beforeTs);
+                        return byTs < 0 || (byTs == 0 && PG_UUID_ORDER.compare(r.getPaymentId(), beforeId) < 0);
+                    })
+                    .limit(limit)
+                    .toList();
+        });
+
+        LedgerService ledgerService = mock(LedgerService.class);
+        when(ledgerService.getUserBalance(userId)).thenReturn(Optional.empty());
+
+        transactionService = new TransactionServiceImpl();
+        ReflectionTestUtils.setField(transactionService, "transactionRepository", repository);
+        ReflectionTestUtils.setField(transactionService, "transactionMapper", new TransactionMapper());
+        ReflectionTestUtils.setField(transactionService, "ledgerService", ledgerService);
+    }
+
+    @Test
+    void pagingWithBeforeOnlyDoesNotRepeatRows() {
+        Set<UUID> seen = new HashSet<>();
+        int returned = 0;
+        LocalDateTime before = null;
+
+        TransactionHistoryResponse page;
+        do {
+            page = transactionService.getUserTransactionHistory(userId, before, null, PAGE_SIZE);
+            for (TransactionDTO dto : page.getTransactions()) {
+                assertTrue(seen.add(dto.getPaymentId()), "row repeated across pages: " + dto.getPaymentId());
+                returned++;
+            }
+            before = page.getNextBefore();
+        } while (page.isHasMore());
+
+        assertEquals(ROWS, returned);
+    }
+
+    private static TransactionHistoryRow row(LocalDateTime createdAt) {
+        TransactionHistoryRow row = mock(TransactionHistoryRow.class);
+        UUID paymentId = UUID.randomUUID();
+        when(row.getPaymentId()).thenReturn(paymentId);
+        when(row.getCreatedAt()).thenReturn(createdAt);
+        return row;
+    }
+}